@@ -0,0 +1,58 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading the status of a job info response: the eager conversion of every field behind
+ * {@link Printer#jobInfo(String)}, against the typed {@link JobInfo} that decodes only what is read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMappingBenchmark {
+
+    private JSONObject response;
+
+    @Setup
+    public void setUp() {
+        this.response = new JSONObject()
+                .put("status", "pending")
+                .put("status_reason", new JSONObject().put("code", "printing").put("detail", "page 2 of 4"))
+                .put("job_name", "job-AbCdEfGh")
+                .put("total_pages", 4)
+                .put("start_date", "2026-10-18 09:00:00")
+                .put("update_date", "2026-10-18 09:00:05");
+    }
+
+    @Benchmark
+    public String eagerMap() {
+        return Printer.jsonObjectToMap(this.response).get("status");
+    }
+
+    @Benchmark
+    public String typed() {
+        return new JobInfo(this.response).getStatus();
+    }
+
+    @Benchmark
+    public String mapView() {
+        Map<String, String> view = new JobInfo(this.response).asMap();
+        return view.get("status");
+    }
+}
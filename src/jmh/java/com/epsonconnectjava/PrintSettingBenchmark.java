@@ -0,0 +1,79 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning print settings into a job creation body: the map-based merge and validation done per job
+ * by {@link Printer#printSetting(Map)}, against the body cached by a typed {@link PrintSetting}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrintSettingBenchmark {
+
+    private Map<String, Object> printSetting;
+    private PrintSetting typed;
+
+    @Setup
+    public void setUp() {
+        this.printSetting = new HashMap<>();
+        this.printSetting.put("media_size", "ms_a4");
+        this.printSetting.put("print_quality", "high");
+        this.printSetting.put("color_mode", "mono");
+        this.printSetting.put("copies", 2);
+        this.typed = PrintSetting.builder()
+                .mediaSize(PrintSetting.MediaSize.A4)
+                .quality(PrintSetting.Quality.HIGH)
+                .colorMode(PrintSetting.ColorMode.MONO)
+                .copies(2)
+                .build();
+    }
+
+    private Map<String, Object> settings() {
+        // Merging fills in the nested map, so every operation starts from fresh copies
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("print_setting", new HashMap<>(this.printSetting));
+        return settings;
+    }
+
+    @Benchmark
+    public Map<String, Object> mergeAndValidate() {
+        Map<String, Object> merged = PrintSetting.mergeWithDefaultSettings(settings());
+        PrintSetting.validateSettings(merged);
+        return merged;
+    }
+
+    @Benchmark
+    public String mapBody() {
+        Map<String, Object> merged = PrintSetting.mergeWithDefaultSettings(settings());
+        PrintSetting.validateSettings(merged);
+        return new JSONObject(merged).toString();
+    }
+
+    @Benchmark
+    public String typedBody() {
+        return this.typed.toJson();
+    }
+
+    @Benchmark
+    public String generateRandomString() {
+        return PrintSetting.generateRandomString(8);
+    }
+}
@@ -0,0 +1,88 @@
+package com.epsonconnectjava;
+
+import com.epsonconnectjava.http.HttpClient;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a job info request by concatenating and parsing its URL and header per call, against
+ * a {@link RequestTemplate} that reuses the parsed device URL and authorization header.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestTemplateBenchmark {
+
+    private AuthCtx authCtx;
+    private RequestTemplate jobs;
+
+    @Setup
+    public void setUp() {
+        this.authCtx = new AuthCtx(new TokenOnlyHttpClient(), "https://api.epsonconnect.com", "printer@example.com",
+                "clientId", "clientSecret");
+        this.authCtx.setProactiveRenewal(false);
+        this.jobs = new RequestTemplate(this.authCtx, "/api/1/printing/printers/", "/jobs");
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.authCtx.close();
+    }
+
+    @Benchmark
+    public Request concatenated() {
+        String path = "/api/1/printing/printers/" + this.authCtx.getDeviceId() + "/jobs/" + "job1";
+        return new Request.Builder()
+                .url(this.authCtx.baseUrl + path)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + this.authCtx.accessToken)
+                .post(RequestBody.create(MediaType.parse("application/json; charset=utf-8"), "{}"))
+                .build();
+    }
+
+    @Benchmark
+    public Request template() {
+        return this.jobs.request(this.jobs.url("job1"))
+                .header("Content-Type", "application/json")
+                .post(RequestBody.create(RequestTemplate.JSON, "{}"))
+                .build();
+    }
+
+    /**
+     * Answers the token request of the authentication context, so it can be created without a network.
+     */
+    private static final class TokenOnlyHttpClient implements HttpClient {
+        @Override
+        public JSONObject send(Request.Builder requestBuilder) {
+            return new JSONObject()
+                    .put("access_token", "accessToken")
+                    .put("refresh_token", "refreshToken")
+                    .put("expires_in", 3600)
+                    .put("subject_id", "deviceId");
+        }
+
+        @Override
+        public CompletableFuture<JSONObject> sendAsync(Request.Builder requestBuilder) {
+            return CompletableFuture.completedFuture(send(requestBuilder));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.epsonconnectjava.http;
+
+import com.epsonconnectjava.metrics.HistogramMetricsRecorder;
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of {@link RealHttpClient#send(Request.Builder)} against a local {@link MockWebServer}, from one
+ * thread and from eight threads sharing a client.
+ * <p>
+ * The {@code instrumentation} parameter measures the overhead of the metrics recorder and of timing every
+ * call's phases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RealHttpClientBenchmark {
+
+    static final String BODY = "{\"status\":\"completed\",\"total_pages\":4}";
+
+    @Param({"none", "metrics", "timings"})
+    public String instrumentation;
+
+    private MockWebServer server;
+    private HttpTransport transport;
+    private RealHttpClient client;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.server = newServer();
+        this.server.start();
+        this.url = this.server.url("/api/1/printing/jobs/job1").toString();
+        this.transport = new HttpTransport();
+        this.client = new RealHttpClient(this.transport, this.server.url("/").toString());
+        if (!"none".equals(this.instrumentation)) {
+            this.client.setMetricsRecorder(new HistogramMetricsRecorder());
+        }
+        if ("timings".equals(this.instrumentation)) {
+            this.client.setCallTimingSampleRate(1.0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.transport.shutdown();
+        this.server.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public JSONObject sendSingleThreaded() throws IOException {
+        return this.client.send(new Request.Builder().url(this.url).get());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public JSONObject sendContended() throws IOException {
+        return this.client.send(new Request.Builder().url(this.url).get());
+    }
+
+    /**
+     * Creates a server answering every request with the same small JSON body, not yet started.
+     */
+    static MockWebServer newServer() {
+        MockWebServer server = new MockWebServer();
+        MockResponse response = new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(BODY);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return response;
+            }
+        });
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        return server;
+    }
+}
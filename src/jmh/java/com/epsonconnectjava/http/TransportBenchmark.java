@@ -0,0 +1,138 @@
+package com.epsonconnectjava.http;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clients sharing one {@link HttpTransport}, against clients that each create and shut down their own
+ * transport, over HTTPS.
+ * <p>
+ * Latency is sampled so the results include percentiles such as p99, and the {@code handshakes} counter
+ * reports the TLS handshakes performed. A shared transport reuses its pooled connection, while a transport
+ * per client pays for a new connection and handshake on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+
+    private MockWebServer server;
+    private HandshakeCertificates clientCertificates;
+    private HttpTransport transport;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        HeldCertificate localhost = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost")
+                .build();
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(localhost)
+                .build();
+        this.clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(localhost.certificate())
+                .build();
+        this.server = RealHttpClientBenchmark.newServer();
+        this.server.useHttps(serverCertificates.sslSocketFactory(), false);
+        this.server.start();
+        this.url = this.server.url("/api/1/printing/jobs/job1").toString();
+        this.transport = new TrustingTransport(this.clientCertificates);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.transport.shutdown();
+        this.server.shutdown();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public JSONObject sharedTransport(Handshakes handshakes) throws IOException {
+        return new RealHttpClient(this.transport, this.url).send(new Request.Builder().url(this.url).get());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public JSONObject transportPerClient(Handshakes handshakes) throws IOException {
+        HttpTransport own = new TrustingTransport(this.clientCertificates);
+        try {
+            return new RealHttpClient(own, this.url).send(new Request.Builder().url(this.url).get());
+        } finally {
+            own.shutdown();
+        }
+    }
+
+    /**
+     * Counts the TLS handshakes started by the benchmark thread. Synchronous calls connect on the calling
+     * thread, so the listener can find the thread's counter.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Handshakes {
+        private static final ThreadLocal<Handshakes> CURRENT = new ThreadLocal<>();
+
+        public long handshakes;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            this.handshakes = 0;
+            CURRENT.set(this);
+        }
+    }
+
+    /**
+     * A transport trusting the server's self-signed certificate and counting handshakes.
+     */
+    private static final class TrustingTransport extends HttpTransport {
+        private static final EventListener COUNTING = new EventListener() {
+            @Override
+            public void secureConnectStart(Call call) {
+                Handshakes handshakes = Handshakes.CURRENT.get();
+                if (handshakes != null) {
+                    handshakes.handshakes++;
+                }
+            }
+        };
+
+        private final OkHttpClient client;
+
+        private TrustingTransport(HandshakeCertificates certificates) {
+            // Shares the pool and dispatcher of the transport, which shutdown() releases
+            this.client = super.getOkHttpClient().newBuilder()
+                    .sslSocketFactory(certificates.sslSocketFactory(), certificates.trustManager())
+                    .eventListener(COUNTING)
+                    .build();
+        }
+
+        @Override
+        public OkHttpClient getOkHttpClient() {
+            return this.client;
+        }
+    }
+}
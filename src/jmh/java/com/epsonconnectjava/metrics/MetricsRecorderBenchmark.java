@@ -0,0 +1,49 @@
+package com.epsonconnectjava.metrics;
+
+import com.epsonconnectjava.http.Endpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording one request, with the recorder used when metrics are off and with the histogram
+ * recorder, from one thread and from eight threads updating the same histogram.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsRecorderBenchmark {
+
+    private final MetricsRecorder noop = MetricsRecorder.noop();
+    private final HistogramMetricsRecorder histogram = new HistogramMetricsRecorder();
+
+    @Benchmark
+    @Threads(1)
+    public void noop() {
+        this.noop.recordRequest(Endpoint.JOB_INFO, 48_000_000L, 200, true);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void histogram() {
+        this.histogram.recordRequest(Endpoint.JOB_INFO, 48_000_000L, 200, true);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void histogramContended() {
+        this.histogram.recordRequest(Endpoint.JOB_INFO, 48_000_000L, 200, true);
+    }
+}
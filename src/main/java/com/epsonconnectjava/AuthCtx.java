@@ -1,7 +1,9 @@
 package com.epsonconnectjava;
 
 import com.epsonconnectjava.http.HttpClient;
+import com.epsonconnectjava.http.HttpTransport;
 import com.epsonconnectjava.http.RealHttpClient;
+import com.epsonconnectjava.metrics.MetricsRecorder;
 import okhttp3.Credentials;
 import okhttp3.FormBody;
 import okhttp3.Request;
@@ -9,36 +11,72 @@ import okhttp3.RequestBody;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.channels.OverlappingFileLockException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
  * AuthCtx class is responsible for handling authentication with the Epson Connect API.
  * It also provides utility methods to send HTTP requests using a specified HttpClient.
+ * <p>
+ * Token refresh is single-flight: concurrent callers of {@link #auth()} on an expired token wait for one
+ * refresh instead of each calling the token endpoint. Once a token is obtained, a renewal is scheduled
+ * on a shared background thread shortly before it expires, so request threads do not pay for it.
  */
-public class AuthCtx {
+public class AuthCtx implements AutoCloseable {
 
     private static final Logger logger = Logger.getLogger(AuthCtx.class.getName());
+    // How long before expiry a token is renewed in the background
+    private static final long RENEWAL_MARGIN_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    // Delay before retrying a failed background renewal
+    private static final long RENEWAL_RETRY_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    // Shared scheduler running background token renewals for all contexts
+    private static final ScheduledExecutorService RENEWAL_SCHEDULER = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "epson-connect-token-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     // HTTP client used for making API calls
     private final HttpClient httpClient;
     // API base URL
     public String baseUrl;
     // Access token for API authentication
-    public String accessToken;
+    public volatile String accessToken;
+    // Authorization header built from the access token, replaced whenever the token changes
+    volatile RequestTemplate.AuthHeader authHeader;
     // Email associated with the printer
     private String printerEmail;
     // API client ID for authentication
     private String clientId;
     // API client secret for authentication
     private String clientSecret;
-    // Date when the access token expires
-    private Date expiresAt;
+    // Date when the access token expires, written after the token itself
+    private volatile Date expiresAt;
     // Refresh token for renewing the access token
-    private String refreshToken;
+    private volatile String refreshToken;
     // Subject ID (typically representing the device ID)
-    private String subjectId;
+    private volatile String subjectId;
+    // Guards token refreshes so only one runs at a time
+    private final Object refreshLock = new Object();
+    // Whether tokens are renewed in the background before they expire
+    private volatile boolean proactiveRenewal = true;
+    // Pending background renewal, if any
+    private volatile ScheduledFuture<?> renewal;
+    // Where tokens are persisted across restarts, or null
+    private final TokenStore tokenStore;
+    // Coordinates refreshes with other processes sharing the token store, or null
+    private final TokenLease tokenLease;
+    // Receives token refreshes and document uploads
+    volatile MetricsRecorder metricsRecorder = MetricsRecorder.noop();
 
     /**
      * Constructor for AuthCtx with specified parameters.
@@ -53,7 +91,52 @@ public class AuthCtx {
     }
 
     /**
-     * Main constructor for AuthCtx.
+     * Constructor for AuthCtx that sends its requests over the given transport.
+     *
+     * @param transport Shared transport providing the connection pool and dispatcher.
+     * @param baseUrl Base URL for the API.
+     * @param printerEmail Email associated with the printer.
+     * @param clientId Client ID for API authentication.
+     * @param clientSecret Client secret for API authentication.
+     */
+    public AuthCtx(HttpTransport transport, String baseUrl, String printerEmail, String clientId, String clientSecret) {
+        this(new RealHttpClient(transport, baseUrl), baseUrl, printerEmail, clientId, clientSecret);
+    }
+
+    /**
+     * Constructor for AuthCtx that sends its requests over the given transport and persists tokens.
+     *
+     * @param transport Shared transport providing the connection pool and dispatcher.
+     * @param baseUrl Base URL for the API.
+     * @param printerEmail Email associated with the printer.
+     * @param clientId Client ID for API authentication.
+     * @param clientSecret Client secret for API authentication.
+     * @param tokenStore Store used to persist tokens across restarts, or null.
+     */
+    public AuthCtx(HttpTransport transport, String baseUrl, String printerEmail, String clientId, String clientSecret,
+                   TokenStore tokenStore) {
+        this(new RealHttpClient(transport, baseUrl), baseUrl, printerEmail, clientId, clientSecret, tokenStore);
+    }
+
+    /**
+     * Constructor for AuthCtx that sends its requests over the given transport and coordinates token
+     * refreshes with other processes sharing the token store.
+     *
+     * @param transport Shared transport providing the connection pool and dispatcher.
+     * @param baseUrl Base URL for the API.
+     * @param printerEmail Email associated with the printer.
+     * @param clientId Client ID for API authentication.
+     * @param clientSecret Client secret for API authentication.
+     * @param tokenStore Store used to persist tokens across restarts, or null.
+     * @param tokenLease Lease serializing refreshes across processes, or null.
+     */
+    public AuthCtx(HttpTransport transport, String baseUrl, String printerEmail, String clientId, String clientSecret,
+                   TokenStore tokenStore, TokenLease tokenLease) {
+        this(new RealHttpClient(transport, baseUrl), baseUrl, printerEmail, clientId, clientSecret, tokenStore, tokenLease);
+    }
+
+    /**
+     * Constructor for AuthCtx without token persistence.
      *
      * @param httpClient The HTTP client to use for making requests.
      * @param baseUrl Base URL for the API.
@@ -62,6 +145,40 @@ public class AuthCtx {
      * @param clientSecret Client secret for API authentication.
      */
     public AuthCtx(HttpClient httpClient, String baseUrl, String printerEmail, String clientId, String clientSecret) {
+        this(httpClient, baseUrl, printerEmail, clientId, clientSecret, null);
+    }
+
+    /**
+     * Constructor for AuthCtx with token persistence but no cross-process coordination.
+     *
+     * @param httpClient The HTTP client to use for making requests.
+     * @param baseUrl Base URL for the API.
+     * @param printerEmail Email associated with the printer.
+     * @param clientId Client ID for API authentication.
+     * @param clientSecret Client secret for API authentication.
+     * @param tokenStore Store used to persist tokens across restarts, or null.
+     */
+    public AuthCtx(HttpClient httpClient, String baseUrl, String printerEmail, String clientId, String clientSecret,
+                   TokenStore tokenStore) {
+        this(httpClient, baseUrl, printerEmail, clientId, clientSecret, tokenStore, null);
+    }
+
+    /**
+     * Main constructor for AuthCtx.
+     * If a token store is given and holds a token for this tenant, it is used instead of authenticating;
+     * an expired stored token is refreshed right away. If a token lease is also given, refreshes are
+     * serialized with other processes sharing the store.
+     *
+     * @param httpClient The HTTP client to use for making requests.
+     * @param baseUrl Base URL for the API.
+     * @param printerEmail Email associated with the printer.
+     * @param clientId Client ID for API authentication.
+     * @param clientSecret Client secret for API authentication.
+     * @param tokenStore Store used to persist tokens across restarts, or null.
+     * @param tokenLease Lease serializing refreshes across processes, or null.
+     */
+    public AuthCtx(HttpClient httpClient, String baseUrl, String printerEmail, String clientId, String clientSecret,
+                   TokenStore tokenStore, TokenLease tokenLease) {
         this.baseUrl = baseUrl;
         this.printerEmail = printerEmail;
         this.clientId = clientId;
@@ -71,6 +188,9 @@ public class AuthCtx {
         this.refreshToken = "";
         this.subjectId = "";
         this.httpClient = httpClient;
+        this.tokenStore = tokenStore;
+        this.tokenLease = tokenLease;
+        loadStoredToken();
         auth();
     }
 
@@ -85,16 +205,121 @@ public class AuthCtx {
         return this.httpClient.send(requestBuilder);
     }
 
+    /**
+     * Sends an HTTP request without blocking the calling thread.
+     *
+     * @param requestBuilder The request builder to use for creating the HTTP request.
+     * @return A future completed with the response data, or exceptionally if the request fails.
+     */
+    public CompletableFuture<JSONObject> sendAsync(Request.Builder requestBuilder) {
+        return this.httpClient.sendAsync(requestBuilder);
+    }
+
     /**
      * Authenticates the client with the Epson Connect API.
      * If the client is already authenticated and the token hasn't expired, it does nothing.
      * Otherwise, it refreshes the token or authenticates for the first time.
+     * If another thread is already refreshing the token, this call waits for it and reuses its result.
      */
     public void auth() {
-        if (this.expiresAt.after(new Date())) {
+        if (isTokenValid()) {
             return;
         }
+        synchronized (this.refreshLock) {
+            // Another thread may have refreshed the token while this one was waiting
+            if (isTokenValid()) {
+                return;
+            }
+            refresh();
+        }
+    }
+
+    /**
+     * Enables or disables background renewal of the access token before it expires.
+     *
+     * @param proactiveRenewal Whether to renew tokens in the background.
+     */
+    public void setProactiveRenewal(boolean proactiveRenewal) {
+        this.proactiveRenewal = proactiveRenewal;
+        if (!proactiveRenewal) {
+            cancelRenewal();
+        }
+    }
+
+    /**
+     * Sets the recorder receiving token refreshes and the uploads of printers using this context. It is also
+     * passed to the context's {@link HttpClient}, which records the latency of every request if it supports
+     * it, like {@link RealHttpClient} and the decorators wrapping one. The token requested by the constructor
+     * is not recorded.
+     *
+     * @param metricsRecorder The recorder, or null to stop recording.
+     */
+    public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.noop();
+        this.httpClient.setMetricsRecorder(metricsRecorder);
+    }
+
+    /**
+     * Stops background token renewal for this context. The context remains usable, but tokens
+     * will only be refreshed inline by {@link #auth()}.
+     */
+    @Override
+    public void close() {
+        this.proactiveRenewal = false;
+        cancelRenewal();
+    }
+
+    private boolean isTokenValid() {
+        return this.expiresAt.getTime() > System.currentTimeMillis();
+    }
+
+    /**
+     * Refreshes the token. Callers must hold the refresh lock.
+     * With a token lease configured, the tenant's lease is held for the duration of the refresh and a
+     * token refreshed by another process in the meantime is adopted instead of requesting a new one.
+     *
+     * @return True if a new token was obtained or adopted.
+     */
+    private boolean refresh() {
+        if (this.tokenLease == null || this.tokenStore == null) {
+            return requestToken();
+        }
+        TokenLease.Lease lease;
+        try {
+            lease = this.tokenLease.acquire(tenantKey());
+        } catch (IOException | OverlappingFileLockException e) {
+            // The file lock is already held by this JVM outside the lease's own serialization
+            logger.warning("Could not acquire token lease, refreshing without it: " + e);
+            return requestToken();
+        }
+        try {
+            return adoptStoredToken() || requestToken();
+        } finally {
+            try {
+                lease.close();
+            } catch (IOException e) {
+                logger.warning("Could not release token lease: " + e.getMessage());
+            }
+        }
+    }
 
+    /**
+     * Requests a new token from the API and records how it went. Callers must hold the refresh lock.
+     *
+     * @return True if a new token was obtained.
+     */
+    private boolean requestToken() {
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            success = sendTokenRequest();
+            return success;
+        } finally {
+            this.metricsRecorder.recordTokenRefresh(System.nanoTime() - startNanos, success);
+        }
+    }
+
+    private boolean sendTokenRequest() {
         Map<String, String> data = new HashMap<>();
         if (this.accessToken.isEmpty()) {
             data.put("grant_type", "password");
@@ -128,9 +353,15 @@ public class AuthCtx {
                 this.refreshToken = body.getString("refresh_token");
             }
 
-            this.expiresAt = new Date(System.currentTimeMillis() + body.getLong("expires_in") * 1000);
+            long lifetimeMillis = body.getLong("expires_in") * 1000;
             this.accessToken = body.getString("access_token");
+            this.authHeader = new RequestTemplate.AuthHeader(this.accessToken);
             this.subjectId = body.getString("subject_id");
+            // Publish the expiry last so readers that see a valid expiry also see the new token
+            this.expiresAt = new Date(System.currentTimeMillis() + lifetimeMillis);
+            scheduleRenewal(lifetimeMillis - Math.min(RENEWAL_MARGIN_MILLIS, lifetimeMillis / 2));
+            storeToken();
+            return true;
         } catch (IOException e) {
             logger.severe("IO Error: " + e.getMessage());
         } catch (ApiError e) {
@@ -138,11 +369,124 @@ public class AuthCtx {
         } catch (AuthenticationError e) {
             logger.severe("Authentication Error: " + e.getMessage());
         }
+        return false;
+    }
+
+    /**
+     * Schedules a background refresh after the given delay, replacing any pending one.
+     * The task only weakly references this context so an abandoned context can still be collected.
+     *
+     * @param delayMillis Delay before the refresh runs.
+     */
+    private void scheduleRenewal(long delayMillis) {
+        if (!this.proactiveRenewal) {
+            return;
+        }
+        cancelRenewal();
+        WeakReference<AuthCtx> ref = new WeakReference<>(this);
+        this.renewal = RENEWAL_SCHEDULER.schedule(() -> {
+            AuthCtx ctx = ref.get();
+            if (ctx != null) {
+                ctx.renew();
+            }
+        }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+
+    private void renew() {
+        synchronized (this.refreshLock) {
+            if (refresh()) {
+                return;
+            }
+        }
+        // Keep retrying while the current token is still usable; after that auth() takes over
+        long remaining = this.expiresAt.getTime() - System.currentTimeMillis();
+        if (remaining > 0) {
+            scheduleRenewal(Math.min(RENEWAL_RETRY_MILLIS, remaining));
+        }
+    }
+
+    /**
+     * Restores the token persisted for this tenant, if any, and schedules its renewal.
+     */
+    private void loadStoredToken() {
+        if (this.tokenStore == null) {
+            return;
+        }
+        try {
+            TokenStore.Token token = this.tokenStore.load(tenantKey());
+            if (token != null) {
+                applyToken(token);
+            }
+        } catch (IOException e) {
+            logger.warning("Could not load stored token: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adopts the stored token if it expires later than the current one, i.e. another process refreshed it.
+     *
+     * @return True if the stored token was adopted.
+     */
+    private boolean adoptStoredToken() {
+        try {
+            TokenStore.Token token = this.tokenStore.load(tenantKey());
+            long current = Math.max(System.currentTimeMillis(), this.expiresAt.getTime());
+            if (token == null || token.getExpiresAt() <= current) {
+                return false;
+            }
+            applyToken(token);
+            return true;
+        } catch (IOException e) {
+            logger.warning("Could not load stored token: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void applyToken(TokenStore.Token token) {
+        this.accessToken = token.getAccessToken();
+        this.authHeader = new RequestTemplate.AuthHeader(this.accessToken);
+        this.refreshToken = token.getRefreshToken();
+        this.subjectId = token.getSubjectId();
+        this.expiresAt = new Date(token.getExpiresAt());
+        long remaining = token.getExpiresAt() - System.currentTimeMillis();
+        if (remaining > 0) {
+            scheduleRenewal(remaining - Math.min(RENEWAL_MARGIN_MILLIS, remaining / 2));
+        }
+    }
+
+    private void storeToken() {
+        if (this.tokenStore == null) {
+            return;
+        }
+        try {
+            this.tokenStore.save(tenantKey(), new TokenStore.Token(this.accessToken, this.refreshToken,
+                    this.expiresAt.getTime(), this.subjectId));
+        } catch (IOException e) {
+            logger.warning("Could not store token: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the key identifying this tenant in a {@link TokenStore}.
+     *
+     * @return The tenant key.
+     */
+    public String tenantKey() {
+        return this.clientId + ":" + this.printerEmail;
+    }
+
+    private void cancelRenewal() {
+        ScheduledFuture<?> pending = this.renewal;
+        if (pending != null) {
+            pending.cancel(false);
+        }
     }
 
 
     /**
      * Deauthenticates the client from the Epson Connect API.
+     * The revoked tokens are discarded, so the context no longer sends them; it has to authenticate again
+     * with {@link #auth()} before it can be used.
      *
      * @throws IOException If there's an error during deauthentication.
      */
@@ -151,6 +495,16 @@ public class AuthCtx {
                 .url(this.baseUrl + "/api/1/printing/printers/" + this.subjectId)
                 .delete();
         httpClient.send(requestBuilder);
+        synchronized (this.refreshLock) {
+            cancelRenewal();
+            this.expiresAt = new Date(0);
+            this.accessToken = "";
+            this.refreshToken = "";
+            this.authHeader = null;
+        }
+        if (this.tokenStore != null) {
+            this.tokenStore.remove(tenantKey());
+        }
     }
 
 
@@ -166,6 +520,7 @@ public class AuthCtx {
     // Setter for accessToken
     public void setAccessToken(String accessToken) {
         this.accessToken = accessToken;
+        this.authHeader = new RequestTemplate.AuthHeader(accessToken);
     }
 
     // Getter for refreshToken
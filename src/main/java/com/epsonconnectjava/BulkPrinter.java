@@ -0,0 +1,328 @@
+package com.epsonconnectjava;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Submits many print jobs across many printers with bounded concurrency.
+ * <p>
+ * Items are queued per printer and started through {@link Printer#printAsync(String, Map)} whenever both
+ * the global limit and the printer's own limit allow it, taking printers in turn so that one busy printer
+ * does not starve the others. No thread is held while a job is in flight. A failing item is recorded in its
+ * {@link Result} and does not affect the rest of the batch. Limits apply across all batches submitted to the
+ * same instance.
+ */
+public class BulkPrinter {
+
+    // Maximum number of items in flight across all printers
+    private final int maxConcurrency;
+    // Maximum number of items in flight for a single printer
+    private final int maxConcurrencyPerPrinter;
+
+    // Guards all fields below
+    private final Object lock = new Object();
+    // Waiting tasks per printer, in the order printers were first seen
+    private final Map<Printer, ArrayDeque<Task>> queues = new IdentityHashMap<>();
+    // Printers with waiting tasks, rotated to share capacity fairly
+    private final ArrayDeque<Printer> rotation = new ArrayDeque<>();
+    // In-flight task count per printer
+    private final Map<Printer, Integer> running = new IdentityHashMap<>();
+    private int runningTotal;
+    // Set while a thread is starting tasks; other threads just ask it to go around again
+    private boolean pumping;
+    private boolean pumpAgain;
+
+    /**
+     * Creates a bulk printer.
+     *
+     * @param maxConcurrency           Maximum number of items in flight across all printers.
+     * @param maxConcurrencyPerPrinter Maximum number of items in flight for a single printer.
+     */
+    public BulkPrinter(int maxConcurrency, int maxConcurrencyPerPrinter) {
+        if (maxConcurrency < 1 || maxConcurrencyPerPrinter < 1) {
+            throw new IllegalArgumentException("Concurrency limits must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.maxConcurrencyPerPrinter = maxConcurrencyPerPrinter;
+    }
+
+    /**
+     * Submits a batch of items without blocking.
+     *
+     * @param items The items to print.
+     * @return A future completed with one result per item, in the order of the given collection,
+     *         once every item has either succeeded or failed.
+     */
+    public CompletableFuture<List<Result>> submit(Collection<Item> items) {
+        Batch batch = new Batch(items.size());
+        if (items.isEmpty()) {
+            batch.future.complete(Collections.emptyList());
+            return batch.future;
+        }
+        synchronized (this.lock) {
+            int index = 0;
+            for (Item item : items) {
+                ArrayDeque<Task> queue = this.queues.get(item.printer);
+                if (queue == null) {
+                    queue = new ArrayDeque<>();
+                    this.queues.put(item.printer, queue);
+                    this.rotation.add(item.printer);
+                }
+                queue.add(new Task(batch, index++, item));
+            }
+        }
+        pump();
+        return batch.future;
+    }
+
+    /**
+     * Prints a batch of items and waits for all of them to finish.
+     *
+     * @param items The items to print.
+     * @return One result per item, in the order of the given collection.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public List<Result> printAll(Collection<Item> items) throws InterruptedException {
+        try {
+            return submit(items).get();
+        } catch (ExecutionException e) {
+            // Item failures are captured in their results, so the batch itself never fails
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Starts as many waiting tasks as the limits allow. Tasks are started outside the lock, and a task that
+     * completes synchronously re-enters here only through the pumpAgain flag, so the stack stays flat.
+     */
+    private void pump() {
+        synchronized (this.lock) {
+            if (this.pumping) {
+                this.pumpAgain = true;
+                return;
+            }
+            this.pumping = true;
+        }
+        while (true) {
+            List<Task> toStart;
+            synchronized (this.lock) {
+                toStart = takeStartable();
+                if (toStart.isEmpty() && !this.pumpAgain) {
+                    this.pumping = false;
+                    return;
+                }
+                this.pumpAgain = false;
+            }
+            for (Task task : toStart) {
+                start(task);
+            }
+        }
+    }
+
+    /**
+     * Removes the tasks that may start now from their queues. Callers must hold the lock.
+     */
+    private List<Task> takeStartable() {
+        List<Task> startable = new ArrayList<>();
+        int printers = this.rotation.size();
+        int idle = 0;
+        // Take one task per printer per round until the limits are hit or nothing can start
+        while (this.runningTotal < this.maxConcurrency && !this.rotation.isEmpty() && idle < printers) {
+            Printer printer = this.rotation.poll();
+            ArrayDeque<Task> queue = this.queues.get(printer);
+            int inFlight = this.running.getOrDefault(printer, 0);
+            if (inFlight >= this.maxConcurrencyPerPrinter) {
+                this.rotation.add(printer);
+                idle++;
+                continue;
+            }
+            idle = 0;
+            startable.add(queue.poll());
+            this.running.put(printer, inFlight + 1);
+            this.runningTotal++;
+            if (queue.isEmpty()) {
+                this.queues.remove(printer);
+                printers--;
+            } else {
+                this.rotation.add(printer);
+            }
+        }
+        return startable;
+    }
+
+    private void start(Task task) {
+        task.startNanos = System.nanoTime();
+        CompletableFuture<String> future;
+        try {
+            future = task.item.printer.printAsync(task.item.filePath, task.item.settings);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((jobId, error) -> finish(task, jobId, error));
+    }
+
+    private void finish(Task task, String jobId, Throwable error) {
+        long endNanos = System.nanoTime();
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        synchronized (this.lock) {
+            Printer printer = task.item.printer;
+            int inFlight = this.running.get(printer) - 1;
+            if (inFlight == 0) {
+                this.running.remove(printer);
+            } else {
+                this.running.put(printer, inFlight);
+            }
+            this.runningTotal--;
+        }
+        task.batch.complete(task.index, new Result(task.item, jobId, error,
+                Duration.ofNanos(task.startNanos - task.batch.submitNanos), Duration.ofNanos(endNanos - task.startNanos)));
+        pump();
+    }
+
+    /**
+     * A file to print on a printer with optional settings.
+     */
+    public static final class Item {
+        private final Printer printer;
+        private final String filePath;
+        private final Map<String, Object> settings;
+
+        /**
+         * Creates an item printed with default settings.
+         *
+         * @param printer  The printer to print on.
+         * @param filePath The path to the file to be printed.
+         */
+        public Item(Printer printer, String filePath) {
+            this(printer, filePath, null);
+        }
+
+        /**
+         * Creates an item.
+         *
+         * @param printer  The printer to print on.
+         * @param filePath The path to the file to be printed.
+         * @param settings The job settings, or null for defaults.
+         */
+        public Item(Printer printer, String filePath, Map<String, Object> settings) {
+            this.printer = printer;
+            this.filePath = filePath;
+            this.settings = settings;
+        }
+
+        public Printer getPrinter() {
+            return printer;
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        public Map<String, Object> getSettings() {
+            return settings;
+        }
+    }
+
+    /**
+     * The outcome of one item.
+     */
+    public static final class Result {
+        private final Item item;
+        private final String jobId;
+        private final Throwable error;
+        private final Duration queueTime;
+        private final Duration duration;
+
+        Result(Item item, String jobId, Throwable error, Duration queueTime, Duration duration) {
+            this.item = item;
+            this.jobId = jobId;
+            this.error = error;
+            this.queueTime = queueTime;
+            this.duration = duration;
+        }
+
+        public Item getItem() {
+            return item;
+        }
+
+        /**
+         * @return The job ID, or null if the item failed.
+         */
+        public String getJobId() {
+            return jobId;
+        }
+
+        /**
+         * @return The failure, or null if the item succeeded.
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * @return Time between submission of the batch and the start of this item.
+         */
+        public Duration getQueueTime() {
+            return queueTime;
+        }
+
+        /**
+         * @return Time taken to create the job, upload the file and execute the job.
+         */
+        public Duration getDuration() {
+            return duration;
+        }
+    }
+
+    private static final class Task {
+        private final Batch batch;
+        private final int index;
+        private final Item item;
+        private long startNanos;
+
+        private Task(Batch batch, int index, Item item) {
+            this.batch = batch;
+            this.index = index;
+            this.item = item;
+        }
+    }
+
+    private static final class Batch {
+        private final CompletableFuture<List<Result>> future = new CompletableFuture<>();
+        private final long submitNanos = System.nanoTime();
+        private final Result[] results;
+        private int remaining;
+
+        private Batch(int size) {
+            this.results = new Result[size];
+            this.remaining = size;
+        }
+
+        private void complete(int index, Result result) {
+            boolean done;
+            synchronized (this) {
+                this.results[index] = result;
+                done = --this.remaining == 0;
+            }
+            if (done) {
+                this.future.complete(Collections.unmodifiableList(Arrays.asList(this.results)));
+            }
+        }
+    }
+}
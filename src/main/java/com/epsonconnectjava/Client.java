@@ -1,5 +1,8 @@
 package com.epsonconnectjava;
 
+import com.epsonconnectjava.http.HttpTransport;
+import com.epsonconnectjava.metrics.MetricsRecorder;
+
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -11,9 +14,11 @@ import java.util.Optional;
 public class Client {
 
     /** Default base URL for the Epson Connect API. */
-    private static final String EC_BASE_URL = "https://api.epsonconnect.com";
+    static final String EC_BASE_URL = "https://api.epsonconnect.com";
     /** Represents the authentication context. */
     private AuthCtx authCtx;
+    /** Cache handed to the printers and scanners created by this client, or null. */
+    private ResponseCache responseCache;
 
     /**
      * Initializes a new Client object with default baseUrl.
@@ -40,6 +45,23 @@ public class Client {
      * @throws ClientError If essential parameters (printerEmail, clientId, or clientSecret) are missing.
      */
     public Client(String baseUrl, String printerEmail, String clientId, String clientSecret, Map<String, String> env) {
+        this(HttpTransport.getDefault(), baseUrl, printerEmail, clientId, clientSecret, env);
+    }
+
+    /**
+     * Initializes a new Client object that sends its requests over the given transport.
+     * Clients created with the same transport share its connection pool and dispatcher.
+     *
+     * @param transport     Transport providing the connection pool and dispatcher.
+     * @param baseUrl       Base URL for the API. Falls back to the default if not provided.
+     * @param printerEmail  Email associated with the printer.
+     * @param clientId      Client ID for API authentication.
+     * @param clientSecret  Client secret for API authentication.
+     * @param env           A map containing environment variables.
+     *
+     * @throws ClientError If essential parameters (printerEmail, clientId, or clientSecret) are missing.
+     */
+    public Client(HttpTransport transport, String baseUrl, String printerEmail, String clientId, String clientSecret, Map<String, String> env) {
         if (env == null) {
             env = new HashMap<>();
         }
@@ -60,7 +82,17 @@ public class Client {
             throw new ClientError("Client Secret cannot be empty");
         }
 
-        this.authCtx = new AuthCtx(baseUrl, printerEmail, clientId, clientSecret);
+        this.authCtx = new AuthCtx(transport, baseUrl, printerEmail, clientId, clientSecret);
+    }
+
+    /**
+     * Initializes a new Client object around an existing authentication context,
+     * for example one shared through a {@link TenantRegistry}.
+     *
+     * @param authCtx The authentication context to use.
+     */
+    public Client(AuthCtx authCtx) {
+        this.authCtx = authCtx;
     }
 
     /**
@@ -78,7 +110,7 @@ public class Client {
      * @return A Printer object.
      */
     public Printer getPrinter() {
-        return new Printer(this.authCtx);
+        return new Printer(this.authCtx, this.responseCache);
     }
 
     /**
@@ -87,7 +119,27 @@ public class Client {
      * @return A Scanner object.
      */
     public Scanner getScanner() {
-        return new Scanner(this.authCtx);
+        return new Scanner(this.authCtx, this.responseCache);
+    }
+
+    /**
+     * Sets the cache used by the printers and scanners returned from now on to serve printer information
+     * and scan destination lists. Caching is off by default.
+     *
+     * @param responseCache The cache, or null to disable caching.
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Sets the recorder receiving request latencies, token refreshes and uploads of this client.
+     *
+     * @param metricsRecorder The recorder, or null to stop recording.
+     * @see AuthCtx#setMetricsRecorder(MetricsRecorder)
+     */
+    public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        this.authCtx.setMetricsRecorder(metricsRecorder);
     }
 
     /**
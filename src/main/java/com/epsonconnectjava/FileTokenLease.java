@@ -0,0 +1,110 @@
+package com.epsonconnectjava;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link TokenLease} based on OS file locks, one lock file per tenant in a directory.
+ * <p>
+ * File locks are held per process, so leases are additionally serialized within the JVM before the
+ * file lock is taken, across all instances using the same lock file. The directory can be shared by all
+ * processes on a node, or by several nodes if the filesystem supports locking.
+ */
+public class FileTokenLease implements TokenLease {
+
+    // In-process locks by absolute lock file path, since a JVM cannot hold overlapping file locks on one file.
+    // An entry is removed once no thread holds or waits for it.
+    private static final ConcurrentMap<Path, LocalLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    // Directory holding the lock files
+    private final Path directory;
+
+    /**
+     * Creates a lease provider in the given directory, creating the directory if needed.
+     *
+     * @param directory The directory holding the lock files.
+     * @throws IOException If the directory cannot be created.
+     */
+    public FileTokenLease(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Lease acquire(String tenantKey) throws IOException {
+        Path lockFile = this.directory.resolve(FileTokenStore.hash(tenantKey) + ".lock");
+        LocalLock localLock = LocalLock.acquire(lockFile);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock fileLock = channel.lock();
+            FileChannel lockedChannel = channel;
+            return () -> {
+                try {
+                    fileLock.release();
+                } finally {
+                    lockedChannel.close();
+                    localLock.release();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            } finally {
+                localLock.release();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * An in-process lock on one lock file, counting the threads holding or waiting for it.
+     */
+    private static final class LocalLock {
+        private final Path lockFile;
+        private final ReentrantLock lock = new ReentrantLock();
+        // Guarded by the map entry's compute calls
+        private int users;
+
+        private LocalLock(Path lockFile) {
+            this.lockFile = lockFile;
+        }
+
+        static LocalLock acquire(Path lockFile) {
+            LocalLock localLock = LOCAL_LOCKS.compute(lockFile, (key, current) -> {
+                LocalLock entry = current == null ? new LocalLock(key) : current;
+                entry.users++;
+                return entry;
+            });
+            try {
+                localLock.lock.lock();
+            } catch (RuntimeException | Error e) {
+                localLock.leave();
+                throw e;
+            }
+            return localLock;
+        }
+
+        void release() {
+            try {
+                this.lock.unlock();
+            } finally {
+                leave();
+            }
+        }
+
+        private void leave() {
+            LOCAL_LOCKS.computeIfPresent(this.lockFile, (key, current) -> --current.users == 0 ? null : current);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.epsonconnectjava;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * A {@link TokenStore} keeping one properties file per tenant in a directory.
+ * <p>
+ * File names are derived from a SHA-256 hash of the tenant key so that emails never appear on disk.
+ * Files are written to a temporary file first and atomically moved into place, so readers in other
+ * processes never observe a partially written token.
+ */
+public class FileTokenStore implements TokenStore {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Directory holding the token files
+    private final Path directory;
+
+    /**
+     * Creates a store in the given directory, creating the directory if needed.
+     *
+     * @param directory The directory holding the token files.
+     * @throws IOException If the directory cannot be created.
+     */
+    public FileTokenStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public Token load(String tenantKey) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(fileFor(tenantKey))) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        String accessToken = properties.getProperty("access_token");
+        String expiresAt = properties.getProperty("expires_at");
+        if (accessToken == null || expiresAt == null) {
+            return null;
+        }
+        try {
+            return new Token(accessToken, properties.getProperty("refresh_token", ""),
+                    Long.parseLong(expiresAt), properties.getProperty("subject_id", ""));
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt token file for tenant: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void save(String tenantKey, Token token) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("access_token", token.getAccessToken());
+        properties.setProperty("refresh_token", token.getRefreshToken());
+        properties.setProperty("expires_at", String.valueOf(token.getExpiresAt()));
+        properties.setProperty("subject_id", token.getSubjectId());
+
+        // Temporary files are created readable by the owner only
+        Path temp = Files.createTempFile(this.directory, "token", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, null);
+            }
+            Files.move(temp, fileFor(tenantKey), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void remove(String tenantKey) throws IOException {
+        Files.deleteIfExists(fileFor(tenantKey));
+    }
+
+    private Path fileFor(String tenantKey) {
+        return this.directory.resolve(hash(tenantKey) + ".token");
+    }
+
+    /**
+     * Returns the hex-encoded SHA-256 hash of a tenant key.
+     *
+     * @param tenantKey The tenant's key.
+     * @return The hash, usable as a file name.
+     */
+    static String hash(String tenantKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(tenantKey.getBytes(StandardCharsets.UTF_8));
+            char[] chars = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                chars[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                chars[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(chars);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
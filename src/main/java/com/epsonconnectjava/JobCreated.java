@@ -0,0 +1,53 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+
+import java.util.Map;
+
+/**
+ * A newly created print job, as returned by the API.
+ */
+public final class JobCreated {
+    private final JSONObject json;
+
+    JobCreated(JSONObject json) {
+        this.json = json;
+    }
+
+    /**
+     * @return The job ID.
+     */
+    public String getId() {
+        return JsonMapView.string(json, "id");
+    }
+
+    /**
+     * @return The URI the document is uploaded to.
+     */
+    public String getUploadUri() {
+        return JsonMapView.string(json, "upload_uri");
+    }
+
+    /**
+     * Returns a field as it appears in the response, for fields without a getter.
+     *
+     * @param key The field name
+     * @return A String, Boolean, Number, JSONObject or JSONArray, or null if the field is absent. Nested
+     *         objects are shared with this instance and must not be modified.
+     */
+    public Object get(String key) {
+        return json.opt(key);
+    }
+
+    /**
+     * @return A read-only view of the fields.
+     */
+    public Map<String, String> asMap() {
+        return new JsonMapView(json);
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+
+import java.util.Map;
+
+/**
+ * The state of a print job, as returned by the API.
+ * <p>
+ * Fields are decoded when they are asked for, so a poller that only looks at the status does not pay for
+ * converting the rest of the response.
+ */
+public final class JobInfo {
+    private final JSONObject json;
+
+    JobInfo(JSONObject json) {
+        this.json = json;
+    }
+
+    /**
+     * @return The job state, such as "pending", "completed" or "canceled".
+     */
+    public String getStatus() {
+        return JsonMapView.string(json, "status");
+    }
+
+    /**
+     * @return Why the job is in its state, or null if the API gave no reason.
+     */
+    public String getStatusReason() {
+        return JsonMapView.string(json, "status_reason");
+    }
+
+    public String getJobName() {
+        return JsonMapView.string(json, "job_name");
+    }
+
+    /**
+     * @return The number of pages of the job, or 0 if it is not known yet.
+     */
+    public int getTotalPages() {
+        return json.optInt("total_pages");
+    }
+
+    public String getStartDate() {
+        return JsonMapView.string(json, "start_date");
+    }
+
+    public String getUpdateDate() {
+        return JsonMapView.string(json, "update_date");
+    }
+
+    /**
+     * Returns a field as it appears in the response, for fields without a getter.
+     *
+     * @param key The field name
+     * @return A String, Boolean, Number, JSONObject or JSONArray, or null if the field is absent. Nested
+     *         objects are shared with this instance and must not be modified.
+     */
+    public Object get(String key) {
+        return json.opt(key);
+    }
+
+    /**
+     * @return A read-only view of the fields in the form returned by {@link Printer#jobInfo(String)}.
+     */
+    public Map<String, String> asMap() {
+        return new JsonMapView(json);
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.epsonconnectjava;
+
+import java.util.Map;
+
+/**
+ * Receives updates about print jobs tracked by a {@link JobPoller}.
+ * <p>
+ * Methods are called from the HTTP client's callback threads and should return quickly.
+ */
+public interface JobListener {
+
+    /**
+     * Called when a poll observes a job in a different state than the previous poll.
+     *
+     * @param printer       The printer the job runs on.
+     * @param jobId         The ID of the job.
+     * @param previousState The previous state, or null on the first poll.
+     * @param state         The new state.
+     * @param jobInfo       The job information returned by the poll.
+     */
+    default void onStateChange(Printer printer, String jobId, String previousState, String state, Map<String, String> jobInfo) {
+    }
+
+    /**
+     * Called once when tracking of a job ends.
+     *
+     * @param printer The printer the job runs on.
+     * @param jobId   The ID of the job.
+     * @param jobInfo The job information of the terminal state, or null if tracking failed.
+     * @param error   The reason tracking failed, or null if the job reached a terminal state.
+     */
+    default void onFinished(Printer printer, String jobId, Map<String, String> jobInfo, Throwable error) {
+    }
+}
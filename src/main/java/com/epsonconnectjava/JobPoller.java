@@ -0,0 +1,374 @@
+package com.epsonconnectjava;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Tracks many print jobs until they finish, polling their status from a single scheduler thread.
+ * <p>
+ * Each job is polled through {@link Printer#jobInfoAsync(String)}, so no thread waits on a response. The
+ * interval between polls starts at {@code minIntervalMillis} and doubles with every poll that sees no state
+ * change, is never shorter than a tenth of the job's age, is doubled again while the job is pending or held,
+ * and is capped at {@code maxIntervalMillis}. A state change resets the backoff. All polls share a budget of
+ * {@code maxRequestsPerSecond}; jobs that are due while the budget is spent wait for it to refill.
+ * <p>
+ * Tracking ends when a job reports one of the terminal states {@code completed}, {@code canceled} or
+ * {@code aborted}, when {@value #MAX_CONSECUTIVE_FAILURES} polls in a row fail, or when the caller cancels
+ * the returned future. Close the poller to stop its scheduler.
+ */
+public class JobPoller implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(JobPoller.class.getName());
+    private static final int MAX_CONSECUTIVE_FAILURES = 5;
+    private static final String STATUS = "status";
+
+    private final ScheduledExecutorService scheduler;
+    private final double permitsPerNano;
+    private final double maxPermits;
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+    private final List<JobListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guards all fields below
+    private final Object lock = new Object();
+    // Jobs waiting for their next poll, earliest first
+    private final PriorityQueue<TrackedJob> due = new PriorityQueue<>(Comparator.comparingLong(job -> job.nextPollNanos));
+    // All tracked jobs, including the ones with a poll in flight
+    private final Set<TrackedJob> jobs = new HashSet<>();
+    private double permits;
+    private long permitsUpdatedNanos;
+    private ScheduledFuture<?> wakeup;
+    private long wakeupNanos;
+    private boolean closed;
+
+    /**
+     * Creates a poller polling each job at most once per second and at least once per minute.
+     *
+     * @param maxRequestsPerSecond Maximum number of status requests per second across all jobs.
+     */
+    public JobPoller(int maxRequestsPerSecond) {
+        this(maxRequestsPerSecond, 1_000, 60_000);
+    }
+
+    /**
+     * Creates a poller.
+     *
+     * @param maxRequestsPerSecond Maximum number of status requests per second across all jobs.
+     * @param minIntervalMillis    Interval between the first polls of a job.
+     * @param maxIntervalMillis    Upper bound of the interval between polls of a job.
+     */
+    public JobPoller(int maxRequestsPerSecond, long minIntervalMillis, long maxIntervalMillis) {
+        if (maxRequestsPerSecond < 1) {
+            throw new IllegalArgumentException("maxRequestsPerSecond must be at least 1");
+        }
+        if (minIntervalMillis < 1 || maxIntervalMillis < minIntervalMillis) {
+            throw new IllegalArgumentException("Invalid polling intervals");
+        }
+        this.permitsPerNano = maxRequestsPerSecond / 1e9;
+        this.maxPermits = maxRequestsPerSecond;
+        this.permits = maxRequestsPerSecond;
+        this.permitsUpdatedNanos = System.nanoTime();
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        this.maxIntervalNanos = TimeUnit.MILLISECONDS.toNanos(maxIntervalMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "epson-connect-job-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers a listener notified about every tracked job.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(JobListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(JobListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Starts tracking a job.
+     *
+     * @param printer The printer the job runs on.
+     * @param jobId   The ID of the job.
+     * @return A future completed with the job information once the job reaches a terminal state.
+     *         Cancelling it stops tracking the job.
+     */
+    public CompletableFuture<Map<String, String>> track(Printer printer, String jobId) {
+        return track(printer, jobId, null);
+    }
+
+    /**
+     * Starts tracking a job, notifying a listener about this job only in addition to the registered ones.
+     *
+     * @param printer  The printer the job runs on.
+     * @param jobId    The ID of the job.
+     * @param listener The listener for this job, or null.
+     * @return A future completed with the job information once the job reaches a terminal state.
+     *         Cancelling it stops tracking the job.
+     */
+    public CompletableFuture<Map<String, String>> track(Printer printer, String jobId, JobListener listener) {
+        long now = System.nanoTime();
+        TrackedJob job = new TrackedJob(printer, jobId, listener, now);
+        job.nextPollNanos = now + this.minIntervalNanos;
+        synchronized (this.lock) {
+            if (this.closed) {
+                throw new IllegalStateException("JobPoller is closed");
+            }
+            this.jobs.add(job);
+            this.due.add(job);
+            scheduleWakeup(now);
+        }
+        return job.future;
+    }
+
+    /**
+     * Returns the number of jobs currently tracked.
+     *
+     * @return The number of tracked jobs.
+     */
+    public int size() {
+        synchronized (this.lock) {
+            return this.jobs.size();
+        }
+    }
+
+    /**
+     * Stops the scheduler and cancels the futures of all jobs still tracked.
+     */
+    @Override
+    public void close() {
+        List<TrackedJob> remaining;
+        synchronized (this.lock) {
+            this.closed = true;
+            remaining = new ArrayList<>(this.jobs);
+            this.jobs.clear();
+            this.due.clear();
+        }
+        this.scheduler.shutdownNow();
+        for (TrackedJob job : remaining) {
+            job.future.cancel(false);
+        }
+    }
+
+    /**
+     * Starts polls for the jobs that are due, as far as the budget allows, and schedules the next run.
+     * Polls are started outside the lock.
+     */
+    private void dispatch() {
+        List<TrackedJob> toPoll = new ArrayList<>();
+        synchronized (this.lock) {
+            this.wakeup = null;
+            if (this.closed) {
+                return;
+            }
+            long now = System.nanoTime();
+            refillPermits(now);
+            TrackedJob job;
+            while ((job = this.due.peek()) != null && job.nextPollNanos <= now) {
+                if (job.future.isDone()) {
+                    // Cancelled by the caller
+                    this.due.poll();
+                    this.jobs.remove(job);
+                    continue;
+                }
+                if (this.permits < 1) {
+                    break;
+                }
+                this.due.poll();
+                this.permits--;
+                toPoll.add(job);
+            }
+            scheduleWakeup(now);
+        }
+        for (TrackedJob job : toPoll) {
+            poll(job);
+        }
+    }
+
+    private void poll(TrackedJob job) {
+        CompletableFuture<Map<String, String>> future;
+        try {
+            future = job.printer.jobInfoAsync(job.jobId);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((jobInfo, error) -> handle(job, jobInfo, error));
+    }
+
+    private void handle(TrackedJob job, Map<String, String> jobInfo, Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error != null) {
+            if (++job.failures >= MAX_CONSECUTIVE_FAILURES) {
+                finish(job, null, error);
+                return;
+            }
+            logger.warning("Failed to poll job " + job.jobId + ": " + error.getMessage());
+            job.unchangedPolls++;
+        } else {
+            job.failures = 0;
+            String state = jobInfo.get(STATUS);
+            if (!Objects.equals(state, job.state)) {
+                String previousState = job.state;
+                job.state = state;
+                job.unchangedPolls = 0;
+                for (JobListener listener : this.listeners) {
+                    notifyStateChange(listener, job, previousState, state, jobInfo);
+                }
+                if (job.listener != null) {
+                    notifyStateChange(job.listener, job, previousState, state, jobInfo);
+                }
+            } else {
+                job.unchangedPolls++;
+            }
+            if (isTerminal(state)) {
+                finish(job, jobInfo, null);
+                return;
+            }
+        }
+        long now = System.nanoTime();
+        job.nextPollNanos = now + nextInterval(job, now);
+        synchronized (this.lock) {
+            if (this.closed || !this.jobs.contains(job)) {
+                return;
+            }
+            this.due.add(job);
+            scheduleWakeup(now);
+        }
+    }
+
+    private void finish(TrackedJob job, Map<String, String> jobInfo, Throwable error) {
+        synchronized (this.lock) {
+            this.jobs.remove(job);
+        }
+        for (JobListener listener : this.listeners) {
+            notifyFinished(listener, job, jobInfo, error);
+        }
+        if (job.listener != null) {
+            notifyFinished(job.listener, job, jobInfo, error);
+        }
+        if (error != null) {
+            job.future.completeExceptionally(error);
+        } else {
+            job.future.complete(jobInfo);
+        }
+    }
+
+    // A failing listener must not keep the job from being polled again or its future from completing
+    private static void notifyStateChange(JobListener listener, TrackedJob job, String previousState, String state,
+                                          Map<String, String> jobInfo) {
+        try {
+            listener.onStateChange(job.printer, job.jobId, previousState, state, jobInfo);
+        } catch (RuntimeException e) {
+            logger.warning("Listener failed on state change of job " + job.jobId + ": " + e);
+        }
+    }
+
+    private static void notifyFinished(JobListener listener, TrackedJob job, Map<String, String> jobInfo,
+                                       Throwable error) {
+        try {
+            listener.onFinished(job.printer, job.jobId, jobInfo, error);
+        } catch (RuntimeException e) {
+            logger.warning("Listener failed on completion of job " + job.jobId + ": " + e);
+        }
+    }
+
+    private long nextInterval(TrackedJob job, long now) {
+        long interval = this.minIntervalNanos << Math.min(job.unchangedPolls, 20);
+        interval = Math.max(interval, (now - job.trackedSinceNanos) / 10);
+        if (isWaiting(job.state)) {
+            interval *= 2;
+        }
+        return Math.min(interval, this.maxIntervalNanos);
+    }
+
+    /**
+     * Schedules the next dispatch for the earliest due job, or later if the budget is spent. An already
+     * scheduled earlier dispatch is kept. Callers must hold the lock.
+     */
+    private void scheduleWakeup(long now) {
+        TrackedJob next = this.due.peek();
+        if (next == null) {
+            return;
+        }
+        long at = next.nextPollNanos;
+        if (this.permits < 1) {
+            at = Math.max(at, now + (long) Math.ceil((1 - this.permits) / this.permitsPerNano));
+        }
+        if (this.wakeup != null) {
+            if (this.wakeupNanos <= at) {
+                return;
+            }
+            this.wakeup.cancel(false);
+        }
+        this.wakeupNanos = at;
+        this.wakeup = this.scheduler.schedule(this::dispatch, Math.max(0, at - now), TimeUnit.NANOSECONDS);
+    }
+
+    private void refillPermits(long now) {
+        this.permits = Math.min(this.maxPermits, this.permits + (now - this.permitsUpdatedNanos) * this.permitsPerNano);
+        this.permitsUpdatedNanos = now;
+    }
+
+    private static boolean isTerminal(String state) {
+        if (state == null) {
+            return false;
+        }
+        String normalized = state.toLowerCase(Locale.ROOT);
+        return normalized.equals("completed") || normalized.equals("canceled") || normalized.equals("aborted");
+    }
+
+    private static boolean isWaiting(String state) {
+        if (state == null) {
+            return false;
+        }
+        String normalized = state.toLowerCase(Locale.ROOT);
+        return normalized.contains("pending") || normalized.contains("held");
+    }
+
+    private static final class TrackedJob {
+        private final Printer printer;
+        private final String jobId;
+        private final JobListener listener;
+        private final long trackedSinceNanos;
+        private final CompletableFuture<Map<String, String>> future = new CompletableFuture<>();
+        // Fields below are only touched by one poll at a time
+        private long nextPollNanos;
+        private String state;
+        private int unchangedPolls;
+        private int failures;
+
+        private TrackedJob(Printer printer, String jobId, JobListener listener, long trackedSinceNanos) {
+            this.printer = printer;
+            this.jobId = jobId;
+            this.listener = listener;
+            this.trackedSinceNanos = trackedSinceNanos;
+        }
+    }
+}
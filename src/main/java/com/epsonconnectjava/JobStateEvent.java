@@ -0,0 +1,60 @@
+package com.epsonconnectjava;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A change in the state of a print job, as observed by a {@link JobPoller}.
+ */
+public final class JobStateEvent {
+    private final Printer printer;
+    private final String jobId;
+    private final String previousState;
+    private final String state;
+    private final Map<String, String> jobInfo;
+    private final Instant observedAt;
+
+    JobStateEvent(Printer printer, String jobId, String previousState, String state, Map<String, String> jobInfo, Instant observedAt) {
+        this.printer = printer;
+        this.jobId = jobId;
+        this.previousState = previousState;
+        this.state = state;
+        this.jobInfo = jobInfo;
+        this.observedAt = observedAt;
+    }
+
+    public Printer getPrinter() {
+        return printer;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * @return The previous state, or null for the first observation of the job.
+     */
+    public String getPreviousState() {
+        return previousState;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * @return The job information returned by the poll that observed the change.
+     */
+    public Map<String, String> getJobInfo() {
+        return jobInfo;
+    }
+
+    public Instant getObservedAt() {
+        return observedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "JobStateEvent{jobId=" + jobId + ", " + previousState + " -> " + state + ", observedAt=" + observedAt + "}";
+    }
+}
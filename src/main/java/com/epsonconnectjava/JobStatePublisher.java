@@ -0,0 +1,117 @@
+package com.epsonconnectjava;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Publishes the state changes of jobs tracked by a {@link JobPoller} as a {@link Flow.Publisher}.
+ * <p>
+ * Events are delivered to each subscriber according to its demand from a buffer holding at most
+ * {@code bufferCapacity} events. The poller never waits for subscribers: an event that does not fit into a
+ * subscriber's buffer is dropped for that subscriber and counted in {@link #getDroppedCount()}. A publisher
+ * can cover all jobs of the poller or only the jobs of one printer. Closing the publisher detaches it from
+ * the poller and completes all subscriptions.
+ */
+public class JobStatePublisher implements Flow.Publisher<JobStateEvent>, AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(JobStatePublisher.class.getName());
+
+    private final JobPoller poller;
+    private final SubmissionPublisher<JobStateEvent> publisher;
+    private final JobListener listener;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Creates a publisher for all jobs of a poller, delivering events on the common fork-join pool.
+     *
+     * @param poller         The poller whose jobs are published.
+     * @param bufferCapacity Maximum number of undelivered events per subscriber.
+     */
+    public JobStatePublisher(JobPoller poller, int bufferCapacity) {
+        this(poller, null, ForkJoinPool.commonPool(), bufferCapacity);
+    }
+
+    /**
+     * Creates a publisher for the jobs of one printer, delivering events on the common fork-join pool.
+     *
+     * @param poller         The poller whose jobs are published.
+     * @param printer        The printer whose jobs are published.
+     * @param bufferCapacity Maximum number of undelivered events per subscriber.
+     */
+    public JobStatePublisher(JobPoller poller, Printer printer, int bufferCapacity) {
+        this(poller, printer, ForkJoinPool.commonPool(), bufferCapacity);
+    }
+
+    /**
+     * Creates a publisher.
+     *
+     * @param poller         The poller whose jobs are published.
+     * @param printer        The printer whose jobs are published, or null for all jobs.
+     * @param executor       The executor delivering events to subscribers.
+     * @param bufferCapacity Maximum number of undelivered events per subscriber.
+     */
+    public JobStatePublisher(JobPoller poller, Printer printer, Executor executor, int bufferCapacity) {
+        this.poller = poller;
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.listener = new JobListener() {
+            @Override
+            public void onStateChange(Printer source, String jobId, String previousState, String state, Map<String, String> jobInfo) {
+                if (printer == null || printer == source) {
+                    publish(new JobStateEvent(source, jobId, previousState, state, jobInfo, Instant.now()));
+                }
+            }
+        };
+        poller.addListener(this.listener);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super JobStateEvent> subscriber) {
+        this.publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Returns the number of events dropped because a subscriber's buffer was full.
+     *
+     * @return The number of dropped events, counted once per subscriber.
+     */
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Returns the number of current subscribers.
+     *
+     * @return The number of subscribers.
+     */
+    public int getSubscriberCount() {
+        return this.publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Detaches the publisher from the poller and completes all subscriptions once their buffered events
+     * are delivered.
+     */
+    @Override
+    public void close() {
+        this.poller.removeListener(this.listener);
+        this.publisher.close();
+    }
+
+    private void publish(JobStateEvent event) {
+        try {
+            this.publisher.offer(event, (subscriber, item) -> {
+                this.dropped.incrementAndGet();
+                logger.warning("Dropped " + item + " for a subscriber that is falling behind");
+                return false;
+            });
+        } catch (IllegalStateException e) {
+            // Closed while the poll was in flight
+        }
+    }
+}
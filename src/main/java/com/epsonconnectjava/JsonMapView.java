@@ -0,0 +1,81 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A read-only view of a JSON object as a map of strings, in the form the map-returning methods of
+ * {@link Printer} and {@link Scanner} use: nested objects, arrays and numbers are given by their JSON text.
+ * Values are converted when they are read, not when the view is created.
+ */
+final class JsonMapView extends AbstractMap<String, String> {
+
+    private final JSONObject json;
+
+    JsonMapView(JSONObject json) {
+        this.json = json;
+    }
+
+    /**
+     * Returns a value of a JSON object as a string.
+     *
+     * @return The string, its JSON text if it is not a string, or null if the key is absent or null.
+     */
+    static String string(JSONObject json, String key) {
+        Object value = json.opt(key);
+        if (value == null || value == JSONObject.NULL) {
+            return null;
+        }
+        return value instanceof String ? (String) value : value.toString();
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Object value = this.json.opt((String) key);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && this.json.has((String) key);
+    }
+
+    @Override
+    public int size() {
+        return this.json.length();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                Iterator<String> keys = json.keySet().iterator();
+                return new Iterator<Entry<String, String>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        String key = keys.next();
+                        return new SimpleImmutableEntry<>(key, get(key));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return json.length();
+            }
+        };
+    }
+}
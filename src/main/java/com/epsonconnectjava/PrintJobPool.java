@@ -0,0 +1,240 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A pool of print jobs created ahead of time for one printer and settings profile.
+ * <p>
+ * Creating a job is a full API round trip. Taking a job from the pool instead lets an interactive print pay
+ * only for the upload and the execute call. The pool is topped up asynchronously every time a job is taken
+ * and periodically in the background. Jobs older than {@code maxAgeMillis} are considered stale, since their
+ * upload URI may no longer be accepted, and are dropped instead of handed out. When the pool is empty a job
+ * is created on demand. Close the pool when it is no longer needed to stop its background sweep; a pool that
+ * is dropped without closing stops sweeping once it is garbage collected.
+ * <p>
+ * Every job in the pool exists on the server, so {@code maxAgeMillis} must be at least
+ * {@value #MIN_MAX_AGE_MILLIS} ms to bound how often stale jobs are replaced. After a failed creation the
+ * pool stops refilling for a delay that doubles with every further failure, up to {@code maxAgeMillis}.
+ */
+public class PrintJobPool implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(PrintJobPool.class.getName());
+    // Shortest accepted job age, which also bounds the sweep interval
+    private static final long MIN_MAX_AGE_MILLIS = 1000;
+    // Pause before the first refill after a failed creation
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    // Shared scheduler running the periodic sweeps of all pools
+    private static final ScheduledExecutorService SWEEPER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "epson-connect-job-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Printer the jobs are created on
+    private final Printer printer;
+    // Settings every pooled job is created with, or null for defaults
+    private final Map<String, Object> settings;
+    // Number of jobs kept ready
+    private final int size;
+    // Age after which a pooled job is no longer handed out
+    private final long maxAgeMillis;
+    // Ready jobs, oldest first, guarded by this
+    private final ArrayDeque<PooledJob> jobs = new ArrayDeque<>();
+    // Number of job creations in flight, guarded by this
+    private int pending;
+    // Consecutive failed creations, and the time before which no refill starts, guarded by this
+    private int failures;
+    private long retryAt;
+    private boolean closed;
+    private final ScheduledFuture<?> sweep;
+
+    /**
+     * Creates a pool and starts filling it.
+     *
+     * @param printer      The printer to create jobs on.
+     * @param settings     Settings every pooled job is created with, or null for defaults.
+     * @param size         Number of jobs kept ready.
+     * @param maxAgeMillis Age after which a pooled job is considered stale, at least {@value #MIN_MAX_AGE_MILLIS}.
+     */
+    public PrintJobPool(Printer printer, Map<String, Object> settings, int size, long maxAgeMillis) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1");
+        }
+        if (maxAgeMillis < MIN_MAX_AGE_MILLIS) {
+            throw new IllegalArgumentException("maxAgeMillis must be at least " + MIN_MAX_AGE_MILLIS);
+        }
+        this.printer = printer;
+        this.settings = settings;
+        this.size = size;
+        this.maxAgeMillis = maxAgeMillis;
+        long sweepMillis = maxAgeMillis / 2;
+        Sweep task = new Sweep(this);
+        this.sweep = SWEEPER.scheduleWithFixedDelay(task, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        task.future = this.sweep;
+        refill();
+    }
+
+    /**
+     * Takes a fresh job from the pool, or creates one if none is ready.
+     *
+     * @return A JSONObject describing the job, as returned by {@link Printer#printSetting(Map)}.
+     * @throws IOException If the pool is empty and creating a job fails.
+     */
+    public JSONObject take() throws IOException {
+        JSONObject jobData = poll();
+        refill();
+        return jobData != null ? jobData : this.printer.printSetting(this.settings);
+    }
+
+    /**
+     * Takes a fresh job from the pool, or creates one asynchronously if none is ready.
+     *
+     * @return A future completed with a JSONObject describing the job.
+     */
+    public CompletableFuture<JSONObject> takeAsync() {
+        JSONObject jobData = poll();
+        refill();
+        return jobData != null ? CompletableFuture.completedFuture(jobData) : this.printer.printSettingAsync(this.settings);
+    }
+
+    /**
+     * Returns the settings the pooled jobs are created with.
+     *
+     * @return The settings, or null for defaults.
+     */
+    public Map<String, Object> getSettings() {
+        return this.settings;
+    }
+
+    /**
+     * Returns the number of jobs currently ready, including ones that may have gone stale.
+     *
+     * @return The number of pooled jobs.
+     */
+    public synchronized int available() {
+        return this.jobs.size();
+    }
+
+    /**
+     * Stops refilling the pool and drops the pooled jobs.
+     */
+    @Override
+    public void close() {
+        this.sweep.cancel(false);
+        synchronized (this) {
+            this.closed = true;
+            this.jobs.clear();
+        }
+    }
+
+    private synchronized JSONObject poll() {
+        long now = System.currentTimeMillis();
+        PooledJob job;
+        while ((job = this.jobs.poll()) != null) {
+            if (now - job.createdAt < this.maxAgeMillis) {
+                return job.jobData;
+            }
+        }
+        return null;
+    }
+
+    private void sweep() {
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            while (!this.jobs.isEmpty() && now - this.jobs.peek().createdAt >= this.maxAgeMillis) {
+                this.jobs.poll();
+            }
+        }
+        refill();
+    }
+
+    /**
+     * Starts as many job creations as needed to bring the pool back to its size.
+     * Failed creations are not retried here; the next take or sweep after the retry delay tries again.
+     */
+    private void refill() {
+        int missing;
+        synchronized (this) {
+            if (this.closed || System.currentTimeMillis() < this.retryAt) {
+                return;
+            }
+            missing = this.size - this.jobs.size() - this.pending;
+            if (missing <= 0) {
+                return;
+            }
+            this.pending += missing;
+        }
+        for (int i = 0; i < missing; i++) {
+            long startedAt = System.currentTimeMillis();
+            CompletableFuture<JSONObject> created;
+            try {
+                created = this.printer.printSettingAsync(this.settings);
+            } catch (RuntimeException e) {
+                created = CompletableFuture.failedFuture(e);
+            }
+            created.whenComplete((jobData, error) -> {
+                synchronized (this) {
+                    this.pending--;
+                    if (error != null) {
+                        long delay = RETRY_DELAY_MILLIS << Math.min(this.failures++, 20);
+                        this.retryAt = System.currentTimeMillis() + Math.min(delay, this.maxAgeMillis);
+                    } else {
+                        this.failures = 0;
+                        this.retryAt = 0;
+                        if (!this.closed) {
+                            // Age is counted from the request so the upload URI is never older than assumed
+                            this.jobs.add(new PooledJob(jobData, startedAt));
+                        }
+                    }
+                }
+                if (error != null) {
+                    logger.warning("Failed to pre-create print job: " + error.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * The periodic sweep of one pool. It only weakly references the pool so an abandoned pool can still be
+     * collected, and cancels itself once that happened.
+     */
+    private static final class Sweep implements Runnable {
+        private final WeakReference<PrintJobPool> pool;
+        private volatile ScheduledFuture<?> future;
+
+        Sweep(PrintJobPool pool) {
+            this.pool = new WeakReference<>(pool);
+        }
+
+        @Override
+        public void run() {
+            PrintJobPool pool = this.pool.get();
+            if (pool != null) {
+                pool.sweep();
+            } else if (this.future != null) {
+                this.future.cancel(false);
+            }
+        }
+    }
+
+    private static final class PooledJob {
+        private final JSONObject jobData;
+        private final long createdAt;
+
+        private PooledJob(JSONObject jobData, long createdAt) {
+            this.jobData = jobData;
+            this.createdAt = createdAt;
+        }
+    }
+}
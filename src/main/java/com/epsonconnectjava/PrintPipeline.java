@@ -0,0 +1,220 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Prints a stream of documents on one printer with job creation, upload and execution overlapped.
+ * <p>
+ * Each document passes through three stages. Every stage handles one document at a time, but the stages
+ * run concurrently, so while document N uploads, the job for N+1 is being created and N-1 is being
+ * executed. Stages are connected by queues holding at most {@code queueCapacity} documents; a stage whose
+ * output queue is full holds on to its finished document and pauses, and {@link #submit(String)} blocks
+ * while the first queue is full. All work is driven by the HTTP client's asynchronous callbacks, so the
+ * pipeline uses no threads of its own.
+ */
+public class PrintPipeline {
+
+    // Printer all documents are printed on
+    private final Printer printer;
+    // Settings applied to every job, or null for defaults
+    private final Map<String, Object> settings;
+    // Maximum number of documents waiting in front of each stage
+    private final int queueCapacity;
+
+    // Guards the stage state
+    private final Object lock = new Object();
+    private final Stage create;
+    private final Stage upload;
+    private final Stage execute;
+    private final Stage[] stages;
+    private boolean pumping;
+    private boolean pumpAgain;
+
+    /**
+     * Creates a pipeline printing with default settings.
+     *
+     * @param printer       The printer to print on.
+     * @param queueCapacity Maximum number of documents waiting in front of each stage.
+     */
+    public PrintPipeline(Printer printer, int queueCapacity) {
+        this(printer, null, queueCapacity);
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param printer       The printer to print on.
+     * @param settings      Settings applied to every job, or null for defaults.
+     * @param queueCapacity Maximum number of documents waiting in front of each stage.
+     */
+    public PrintPipeline(Printer printer, Map<String, Object> settings, int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1");
+        }
+        this.printer = printer;
+        this.settings = settings;
+        this.queueCapacity = queueCapacity;
+        String printMode = settings == null ? "document" : String.valueOf(settings.getOrDefault("print_mode", "document"));
+
+        this.execute = new Stage(null, document ->
+                this.printer.executePrintAsync(document.jobId));
+        this.upload = new Stage(this.execute, document ->
+                this.printer.uploadFileAsync(document.uploadUri, Paths.get(document.filePath), printMode));
+        this.create = new Stage(this.upload, document ->
+                this.printer.printSettingAsync(this.settings).thenAccept(jobData -> document.created(jobData)));
+        // Downstream stages first, so finished documents drain before new ones are started
+        this.stages = new Stage[]{this.execute, this.upload, this.create};
+    }
+
+    /**
+     * Submits a document, blocking while the pipeline's first queue is full.
+     *
+     * @param filePath The path to the file to be printed.
+     * @return A future completed with the job ID once the job has been executed.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for space.
+     */
+    public CompletableFuture<String> submit(String filePath) throws InterruptedException {
+        Document document = new Document(filePath);
+        synchronized (this.lock) {
+            while (this.create.queue.size() >= this.queueCapacity) {
+                this.lock.wait();
+            }
+            this.create.queue.add(document);
+        }
+        pump();
+        return document.future;
+    }
+
+    /**
+     * Submits a document if the pipeline's first queue has space.
+     *
+     * @param filePath The path to the file to be printed.
+     * @return A future completed with the job ID once the job has been executed, or null if the pipeline is full.
+     */
+    public CompletableFuture<String> offer(String filePath) {
+        Document document = new Document(filePath);
+        synchronized (this.lock) {
+            if (this.create.queue.size() >= this.queueCapacity) {
+                return null;
+            }
+            this.create.queue.add(document);
+        }
+        pump();
+        return document.future;
+    }
+
+    /**
+     * Hands finished documents on and starts idle stages. Work is started outside the lock; completions
+     * that arrive while another thread is pumping only set pumpAgain, so the stack stays flat.
+     */
+    private void pump() {
+        synchronized (this.lock) {
+            if (this.pumping) {
+                this.pumpAgain = true;
+                return;
+            }
+            this.pumping = true;
+        }
+        while (true) {
+            List<Runnable> toStart = new ArrayList<>();
+            synchronized (this.lock) {
+                for (Stage stage : this.stages) {
+                    stage.handOff();
+                    if (!stage.busy && stage.finished == null && !stage.queue.isEmpty()) {
+                        Document document = stage.queue.poll();
+                        stage.busy = true;
+                        toStart.add(() -> stage.run(document));
+                    }
+                }
+                // The first queue may have shrunk
+                this.lock.notifyAll();
+                if (toStart.isEmpty() && !this.pumpAgain) {
+                    this.pumping = false;
+                    return;
+                }
+                this.pumpAgain = false;
+            }
+            for (Runnable start : toStart) {
+                start.run();
+            }
+        }
+    }
+
+    /**
+     * One step of the pipeline.
+     */
+    private final class Stage {
+        private final Stage next;
+        private final Function<Document, CompletableFuture<?>> work;
+        private final ArrayDeque<Document> queue = new ArrayDeque<>();
+        private boolean busy;
+        // A document that completed this stage but did not fit in the next queue yet
+        private Document finished;
+
+        private Stage(Stage next, Function<Document, CompletableFuture<?>> work) {
+            this.next = next;
+            this.work = work;
+        }
+
+        private void run(Document document) {
+            CompletableFuture<?> future;
+            try {
+                future = this.work.apply(document);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((result, error) -> {
+                synchronized (lock) {
+                    this.busy = false;
+                    if (error == null && this.next != null) {
+                        this.finished = document;
+                        handOff();
+                    }
+                }
+                // Callers' futures are completed outside the lock
+                if (error != null) {
+                    document.future.completeExceptionally(
+                            error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else if (this.next == null) {
+                    document.future.complete(document.jobId);
+                }
+                pump();
+            });
+        }
+
+        /**
+         * Moves the finished document to the next queue if it has room. Callers must hold the lock.
+         */
+        private void handOff() {
+            if (this.finished != null && this.next.queue.size() < queueCapacity) {
+                this.next.queue.add(this.finished);
+                this.finished = null;
+            }
+        }
+    }
+
+    private static final class Document {
+        private final String filePath;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private volatile String jobId;
+        private volatile String uploadUri;
+
+        private Document(String filePath) {
+            this.filePath = filePath;
+        }
+
+        private void created(JSONObject jobData) {
+            this.jobId = jobData.getString("id");
+            this.uploadUri = jobData.getString("upload_uri");
+        }
+    }
+}
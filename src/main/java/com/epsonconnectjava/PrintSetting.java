@@ -1,9 +1,127 @@
 package com.epsonconnectjava;
 
+import org.json.JSONObject;
+
 import java.util.*;
 
+/**
+ * Print job settings.
+ * <p>
+ * The static methods work on settings given as nested maps. Instances are the typed alternative: they are
+ * immutable, built with {@link #builder()} and validated once when built. Their JSON request body is
+ * built once and reused by every job created with them; only a generated job name differs per job.
+ */
 public class PrintSetting {
 
+    /** The print mode. */
+    public enum PrintMode {
+        DOCUMENT("document"), PHOTO("photo");
+
+        private final String value;
+
+        PrintMode(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /** The paper size. */
+    public enum MediaSize {
+        A3("ms_a3"), A4("ms_a4"), A5("ms_a5"), A6("ms_a6"), B5("ms_b5"), TABLOID("ms_tabloid"),
+        LETTER("ms_letter"), LEGAL("ms_legal"), HALFLETTER("ms_halfletter"), KG("ms_kg"), L("ms_l"),
+        TWO_L("ms_2l"), SIZE_10X12("ms_10x12"), SIZE_8X10("ms_8x10"), HIVISION("ms_hivision"),
+        SIZE_5X8("ms_5x8"), POSTCARD("ms_postcard");
+
+        private final String value;
+
+        MediaSize(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /** The paper type. */
+    public enum MediaType {
+        PLAIN_PAPER("mt_plainpaper"), PHOTO_PAPER("mt_photopaper"), HAGAKI("mt_hagaki"),
+        HAGAKI_PHOTO("mt_hagakiphoto"), HAGAKI_INKJET("mt_hagakiinkjet");
+
+        private final String value;
+
+        MediaType(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /** The print quality. */
+    public enum Quality {
+        HIGH("high"), NORMAL("normal"), DRAFT("draft");
+
+        private final String value;
+
+        Quality(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /** The paper source. */
+    public enum Source {
+        AUTO("auto"), REAR("rear"), FRONT1("front1"), FRONT2("front2"), FRONT3("front3"), FRONT4("front4");
+
+        private final String value;
+
+        Source(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /** The color mode. */
+    public enum ColorMode {
+        COLOR("color"), MONO("mono");
+
+        private final String value;
+
+        ColorMode(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /** Two-sided printing, binding on the long or the short edge. */
+    public enum TwoSided {
+        NONE("none"), LONG("long"), SHORT("short");
+
+        private final String value;
+
+        TwoSided(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
     private static final Set<String> VALID_PRINT_MODES;
     private static final Set<String> VALID_MEDIA_SIZES;
     private static final Set<String> VALID_MEDIA_TYPES;
@@ -61,9 +179,9 @@ public class PrintSetting {
         VALID_COLOR_MODES.add("mono");
 
         VALID_TWO_SIDE = new HashSet<>();
-        VALID_COLOR_MODES.add("none");
-        VALID_COLOR_MODES.add("long");
-        VALID_COLOR_MODES.add("short");
+        VALID_TWO_SIDE.add("none");
+        VALID_TWO_SIDE.add("long");
+        VALID_TWO_SIDE.add("short");
     }
 
     /**
@@ -120,7 +238,7 @@ public class PrintSetting {
      * @param length The desired length of the random string.
      * @return A random string of the specified length.
      */
-    private static String generateRandomString(int length) {
+    static String generateRandomString(int length) {
         String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
         StringBuilder result = new StringBuilder();
         Random random = new Random();
@@ -236,6 +354,280 @@ public class PrintSetting {
             throw new PrintSettingError("Must collate when using two-sided printing.");
         }
     }
+
+    private final String jobName;
+    private final PrintMode printMode;
+    // Whether a print_setting block is sent; without it the printer uses its own defaults
+    private final boolean hasPrintSetting;
+    private final MediaSize mediaSize;
+    private final MediaType mediaType;
+    private final boolean borderless;
+    private final Quality quality;
+    private final Source source;
+    private final ColorMode colorMode;
+    private final TwoSided twoSided;
+    private final boolean reverseOrder;
+    private final int copies;
+    private final boolean collate;
+    // The request body, without job_name if the job name is generated per job; never modified once built
+    private final JSONObject body;
+    // The serialized body, or null if the job name is generated per job
+    private final String json;
+
+    /**
+     * Creates settings with the defaults, as {@code builder().build()} does. Kept so that existing code
+     * constructing or extending this class still compiles; prefer {@link #builder()}.
+     */
+    public PrintSetting() {
+        this(new Builder());
+    }
+
+    private PrintSetting(Builder builder) {
+        this.jobName = builder.jobName;
+        this.printMode = builder.printMode;
+        this.hasPrintSetting = builder.hasPrintSetting;
+        this.mediaSize = builder.mediaSize;
+        this.mediaType = builder.mediaType;
+        this.borderless = builder.borderless;
+        this.quality = builder.quality;
+        this.source = builder.source;
+        this.colorMode = builder.colorMode;
+        this.twoSided = builder.twoSided;
+        this.reverseOrder = builder.reverseOrder;
+        this.copies = builder.copies;
+        this.collate = builder.collate;
+
+        JSONObject body = new JSONObject();
+        this.body = body;
+        body.put("print_mode", this.printMode.getValue());
+        if (this.hasPrintSetting) {
+            JSONObject printSetting = new JSONObject();
+            printSetting.put("media_size", this.mediaSize.getValue());
+            printSetting.put("media_type", this.mediaType.getValue());
+            printSetting.put("borderless", this.borderless);
+            printSetting.put("print_quality", this.quality.getValue());
+            printSetting.put("source", this.source.getValue());
+            printSetting.put("color_mode", this.colorMode.getValue());
+            printSetting.put("2_sided", this.twoSided.getValue());
+            printSetting.put("reverse_order", this.reverseOrder);
+            printSetting.put("copies", this.copies);
+            printSetting.put("collate", this.collate);
+            body.put("print_setting", printSetting);
+        }
+        if (this.jobName != null) {
+            body.put("job_name", this.jobName);
+            this.json = body.toString();
+        } else {
+            this.json = null;
+        }
+    }
+
+    /**
+     * Creates a builder starting from the defaults: document mode and no print_setting block.
+     *
+     * @return A new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the JSON request body creating a job with these settings.
+     *
+     * @return The body. If no job name was set, every call returns a body with a new random job name.
+     */
+    String toJson() {
+        if (this.jobName != null) {
+            return this.json;
+        }
+        // Generate random name if one is not given. The copy shares the nested print_setting, which is only read.
+        JSONObject named = new JSONObject(this.body, JSONObject.getNames(this.body));
+        named.put("job_name", "job-" + generateRandomString(8));
+        return named.toString();
+    }
+
+    /**
+     * Returns the job name.
+     *
+     * @return The job name, or null if a random one is generated per job.
+     */
+    public String getJobName() {
+        return jobName;
+    }
+
+    public PrintMode getPrintMode() {
+        return printMode;
+    }
+
+    /**
+     * @return Whether paper and quality settings are sent, rather than left to the printer.
+     */
+    public boolean hasPrintSetting() {
+        return hasPrintSetting;
+    }
+
+    public MediaSize getMediaSize() {
+        return mediaSize;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public boolean isBorderless() {
+        return borderless;
+    }
+
+    public Quality getQuality() {
+        return quality;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public ColorMode getColorMode() {
+        return colorMode;
+    }
+
+    public TwoSided getTwoSided() {
+        return twoSided;
+    }
+
+    public boolean isReverseOrder() {
+        return reverseOrder;
+    }
+
+    public int getCopies() {
+        return copies;
+    }
+
+    public boolean isCollate() {
+        return collate;
+    }
+
+    /**
+     * Builds {@link PrintSetting} instances. Setting any paper or quality option sends a print_setting
+     * block, with the defaults of {@link #mergeWithDefaultSettings(Map)} for the options left unset.
+     */
+    public static final class Builder {
+        private String jobName;
+        private PrintMode printMode = PrintMode.DOCUMENT;
+        private boolean hasPrintSetting;
+        private MediaSize mediaSize = MediaSize.A4;
+        private MediaType mediaType = MediaType.PLAIN_PAPER;
+        private boolean borderless;
+        private Quality quality = Quality.NORMAL;
+        private Source source = Source.AUTO;
+        private ColorMode colorMode = ColorMode.COLOR;
+        private TwoSided twoSided = TwoSided.NONE;
+        private boolean reverseOrder;
+        private int copies = 1;
+        private boolean collate = true;
+
+        private Builder() {
+        }
+
+        /**
+         * @param jobName The job name, or null to generate a random one for every job.
+         * @return This builder.
+         */
+        public Builder jobName(String jobName) {
+            this.jobName = jobName == null || jobName.isEmpty() ? null : jobName;
+            return this;
+        }
+
+        public Builder printMode(PrintMode printMode) {
+            this.printMode = Objects.requireNonNull(printMode, "printMode");
+            return this;
+        }
+
+        public Builder mediaSize(MediaSize mediaSize) {
+            this.mediaSize = Objects.requireNonNull(mediaSize, "mediaSize");
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder mediaType(MediaType mediaType) {
+            this.mediaType = Objects.requireNonNull(mediaType, "mediaType");
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder borderless(boolean borderless) {
+            this.borderless = borderless;
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder quality(Quality quality) {
+            this.quality = Objects.requireNonNull(quality, "quality");
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder source(Source source) {
+            this.source = Objects.requireNonNull(source, "source");
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder colorMode(ColorMode colorMode) {
+            this.colorMode = Objects.requireNonNull(colorMode, "colorMode");
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder twoSided(TwoSided twoSided) {
+            this.twoSided = Objects.requireNonNull(twoSided, "twoSided");
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder reverseOrder(boolean reverseOrder) {
+            this.reverseOrder = reverseOrder;
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder copies(int copies) {
+            this.copies = copies;
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        public Builder collate(boolean collate) {
+            this.collate = collate;
+            this.hasPrintSetting = true;
+            return this;
+        }
+
+        /**
+         * Validates the settings and builds them.
+         *
+         * @return The settings.
+         * @throws IllegalArgumentException If the job name is longer than 256 characters.
+         * @throws PrintSettingError If the print options contradict each other or copies is out of range.
+         */
+        public PrintSetting build() {
+            if (this.jobName != null && this.jobName.length() > 256) {
+                throw new IllegalArgumentException("Job name is greater than 256 chars: " + this.jobName);
+            }
+            if (this.hasPrintSetting) {
+                boolean twoSidedPrinting = this.twoSided != TwoSided.NONE;
+                if (twoSidedPrinting && this.reverseOrder) {
+                    throw new PrintSettingError("Cannot use reverse order when using two-sided printing.");
+                }
+                if (this.copies < 1 || this.copies > 99) {
+                    throw new PrintSettingError("Invalid number of copies " + this.copies);
+                }
+                if (twoSidedPrinting && !this.collate) {
+                    throw new PrintSettingError("Must collate when using two-sided printing.");
+                }
+            }
+            return new PrintSetting(this);
+        }
+    }
 }
 
 /**
@@ -1,5 +1,9 @@
 package com.epsonconnectjava;
 
+import com.epsonconnectjava.http.Endpoint;
+import com.epsonconnectjava.http.StreamingRequestBodies;
+import com.epsonconnectjava.metrics.MetricsRecorder;
+import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -7,19 +11,25 @@ import org.json.JSONObject;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URI;
+import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a Printer that interacts with an external API to perform various printer operations.
  */
 public class Printer {
+    private static final MediaType OCTET_STREAM = RequestTemplate.OCTET_STREAM;
+    private static final MediaType JSON = RequestTemplate.JSON;
+    private static final RequestBody EMPTY_BODY = RequestBody.create(null, new byte[0]);
     // Define valid destination types for the scanner
     private static final Set<String> VALID_DESTINATION_TYPES;
     private static final Set<String> VALID_EXTENSIONS;
@@ -53,6 +63,11 @@ public class Printer {
     }
 
     private AuthCtx authCtx;
+    // Cache for printer information, or null
+    private final ResponseCache responseCache;
+    // Requests to the printer and to its jobs
+    private final RequestTemplate printerTemplate;
+    private final RequestTemplate jobsTemplate;
 
     /**
      * Constructor for the Printer class.
@@ -60,7 +75,20 @@ public class Printer {
      * @param authCtx The authentication context containing necessary credentials and tokens.
      */
     public Printer(AuthCtx authCtx) {
+        this(authCtx, null);
+    }
+
+    /**
+     * Constructor for a Printer serving {@link #info()} from a cache.
+     *
+     * @param authCtx       The authentication context containing necessary credentials and tokens.
+     * @param responseCache The cache for printer information, or null to always ask the API.
+     */
+    public Printer(AuthCtx authCtx, ResponseCache responseCache) {
         this.authCtx = authCtx;
+        this.responseCache = responseCache;
+        this.printerTemplate = new RequestTemplate(authCtx, "/api/1/printing/printers/", "");
+        this.jobsTemplate = new RequestTemplate(authCtx, "/api/1/printing/printers/", "/jobs");
         this.authCtx.auth();
     }
 
@@ -71,16 +99,47 @@ public class Printer {
      * @throws IOException If an error occurs during the API request.
      */
     public Map<String, String> info() throws IOException {
-        String path = "/api/1/printing/printers/" + authCtx.getDeviceId();
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(this.authCtx.baseUrl + path);
+        return jsonObjectToMap(sendInfo());
+    }
 
-        requestBuilder.header("Content-Type", "application/json");
-        requestBuilder.header("Authorization", "Bearer " + this.authCtx.accessToken);
-        requestBuilder.get();
+    /**
+     * Retrieves information about the printer as a typed object, without converting the whole response.
+     *
+     * @return The printer information.
+     * @throws IOException If an error occurs during the API request.
+     */
+    public PrinterInfo printerInfo() throws IOException {
+        return new PrinterInfo(sendInfo());
+    }
 
-        JSONObject response = this.authCtx.send(requestBuilder);
-        return jsonObjectToMap(response);
+    private JSONObject sendInfo() throws IOException {
+        return this.responseCache == null
+                ? this.authCtx.send(infoRequest())
+                : this.responseCache.get(deviceId(), Endpoint.PRINTER_INFO, () -> this.authCtx.send(infoRequest()));
+    }
+
+    /**
+     * Retrieves information about the printer without blocking the calling thread.
+     *
+     * @return A future completed with a map containing details about the printer.
+     */
+    public CompletableFuture<Map<String, String>> infoAsync() {
+        return sendInfoAsync().thenApply(Printer::jsonObjectToMap);
+    }
+
+    /**
+     * Retrieves information about the printer as a typed object without blocking the calling thread.
+     *
+     * @return A future completed with the printer information.
+     */
+    public CompletableFuture<PrinterInfo> printerInfoAsync() {
+        return sendInfoAsync().thenApply(PrinterInfo::new);
+    }
+
+    private CompletableFuture<JSONObject> sendInfoAsync() {
+        return this.responseCache == null
+                ? this.authCtx.sendAsync(infoRequest())
+                : this.responseCache.getAsync(deviceId(), Endpoint.PRINTER_INFO, () -> this.authCtx.sendAsync(infoRequest()));
     }
 
     /**
@@ -100,16 +159,39 @@ public class Printer {
      * @throws IOException If an error occurs during the API request.
      */
     public Map<String, String> jobInfo(String jobId) throws IOException {
-        String path = "/api/1/printing/printers/" + authCtx.getDeviceId() + "/jobs/" + jobId;
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(this.authCtx.baseUrl + path);
+        JSONObject response = this.authCtx.send(jobInfoRequest(jobId));
+        return jsonObjectToMap(response);
+    }
 
-        requestBuilder.header("Content-Type", "application/json");
-        requestBuilder.header("Authorization", "Bearer " + this.authCtx.accessToken);
-        requestBuilder.get();
+    /**
+     * Retrieves information about a particular job without blocking the calling thread.
+     *
+     * @param jobId The ID of the print job.
+     * @return A future completed with a map containing details about the job.
+     */
+    public CompletableFuture<Map<String, String>> jobInfoAsync(String jobId) {
+        return this.authCtx.sendAsync(jobInfoRequest(jobId)).thenApply(Printer::jsonObjectToMap);
+    }
 
-        JSONObject response = this.authCtx.send(requestBuilder);
-        return jsonObjectToMap(response);
+    /**
+     * Retrieves the state of a particular job as a typed object, without converting the whole response.
+     *
+     * @param jobId The ID of the print job.
+     * @return The job state.
+     * @throws IOException If an error occurs during the API request.
+     */
+    public JobInfo jobState(String jobId) throws IOException {
+        return new JobInfo(this.authCtx.send(jobInfoRequest(jobId)));
+    }
+
+    /**
+     * Retrieves the state of a particular job as a typed object without blocking the calling thread.
+     *
+     * @param jobId The ID of the print job.
+     * @return A future completed with the job state.
+     */
+    public CompletableFuture<JobInfo> jobStateAsync(String jobId) {
+        return this.authCtx.sendAsync(jobInfoRequest(jobId)).thenApply(JobInfo::new);
     }
 
     /**
@@ -119,18 +201,67 @@ public class Printer {
      * @throws IOException If an error occurs during the API request.
      */
     public JSONObject printSetting() throws IOException {
-        String method = "POST";
-        String path = "/api/1/printing/printers/" + this.authCtx.getDeviceId() + "/jobs";
-        Map<String, Object> settings = PrintSetting.mergeWithDefaultSettings(null);
-        PrintSetting.validateSettings(settings);
-        String jsonBody = new JSONObject(settings).toString();
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(this.authCtx.baseUrl + path)
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + this.authCtx.accessToken)
-                .post(RequestBody.create(MediaType.parse("application/json; charset=utf-8"), jsonBody));
+        return printSetting(null);
+    }
+
+    /**
+     * Creates a print job with the given settings. Missing settings are filled with defaults.
+     *
+     * @param settings The job settings as accepted by {@link PrintSetting#mergeWithDefaultSettings(Map)}, or null.
+     *                 The map is not modified.
+     * @return A JSONObject describing the created job.
+     * @throws IOException If an error occurs during the API request.
+     */
+    public JSONObject printSetting(Map<String, Object> settings) throws IOException {
+        return this.authCtx.send(printSettingRequest(settings));
+    }
+
+    /**
+     * Creates a print job without blocking the calling thread.
+     *
+     * @return A future completed with the JSONObject describing the created job.
+     */
+    public CompletableFuture<JSONObject> printSettingAsync() {
+        return printSettingAsync(null);
+    }
 
-        return this.authCtx.send(requestBuilder);
+    /**
+     * Creates a print job with the given settings without blocking the calling thread.
+     *
+     * @param settings The job settings, or null for defaults. The map is not modified.
+     * @return A future completed with the JSONObject describing the created job. It completes exceptionally
+     *         if the settings are invalid.
+     */
+    public CompletableFuture<JSONObject> printSettingAsync(Map<String, Object> settings) {
+        Request.Builder requestBuilder;
+        try {
+            requestBuilder = printSettingRequest(settings);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return this.authCtx.sendAsync(requestBuilder);
+    }
+
+    /**
+     * Creates a print job with typed settings. The settings were validated when built and their request
+     * body is reused, so nothing is merged, validated or serialized per job.
+     *
+     * @param settings The job settings.
+     * @return The created job.
+     * @throws IOException If an error occurs during the API request.
+     */
+    public JobCreated createJob(PrintSetting settings) throws IOException {
+        return new JobCreated(this.authCtx.send(createJobRequest(settings)));
+    }
+
+    /**
+     * Creates a print job with typed settings without blocking the calling thread.
+     *
+     * @param settings The job settings.
+     * @return A future completed with the created job.
+     */
+    public CompletableFuture<JobCreated> createJobAsync(PrintSetting settings) {
+        return this.authCtx.sendAsync(createJobRequest(settings)).thenApply(JobCreated::new);
     }
 
     /**
@@ -140,15 +271,17 @@ public class Printer {
      * @throws IOException If an error occurs during the API request.
      */
     public void executePrint(String jobId) throws IOException {
-        String method = "POST";
-        String path = "/api/1/printing/printers/" + this.authCtx.getDeviceId() + "/jobs/" + jobId + "/print";
-
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(this.authCtx.baseUrl + path)
-                .header("Authorization", "Bearer " + this.authCtx.accessToken)
-                .post(RequestBody.create(null, new byte[0]));  // Empty POST body
+        this.authCtx.send(executePrintRequest(jobId));
+    }
 
-        this.authCtx.send(requestBuilder);
+    /**
+     * Executes a print job without blocking the calling thread.
+     *
+     * @param jobId The ID of the print job to be executed.
+     * @return A future completed once the job has been started.
+     */
+    public CompletableFuture<Void> executePrintAsync(String jobId) {
+        return this.authCtx.sendAsync(executePrintRequest(jobId)).thenApply(response -> null);
     }
 
     /**
@@ -160,15 +293,172 @@ public class Printer {
      * @throws URISyntaxException If there's an error in URI parsing or construction.
      */
     public String print(String filePath) throws IOException, URISyntaxException {
+        return print(filePath, null);
+    }
+
+    /**
+     * Initiates a print operation for the specified file path with the given settings.
+     *
+     * @param filePath The path to the file to be printed.
+     * @param settings The job settings, or null for defaults. The map is not modified.
+     * @return The job ID of the initiated print operation.
+     * @throws IOException        If an error occurs during the API request.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public String print(String filePath, Map<String, Object> settings) throws IOException, URISyntaxException {
         // Create a print job
-        JSONObject jobData = printSetting();
+        JSONObject jobData = printSetting(settings);
+        return printJob(jobData, filePath, printMode(settings));
+    }
+
+    /**
+     * Initiates a print operation using a job taken from a pool of pre-created jobs, so that only the
+     * upload and execute round trips are paid for.
+     *
+     * @param filePath The path to the file to be printed.
+     * @param jobPool  The pool to take the job from. It must belong to this printer.
+     * @return The job ID of the initiated print operation.
+     * @throws IOException        If an error occurs during the API request.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public String printPooled(String filePath, PrintJobPool jobPool) throws IOException, URISyntaxException {
+        return printJob(jobPool.take(), filePath, printMode(jobPool.getSettings()));
+    }
+
+    /**
+     * Initiates a print operation for data read from a stream, without writing it to a file first.
+     *
+     * @param in        The stream to read the data from. It is not closed.
+     * @param length    The number of bytes to print, or -1 to read up to the end of the stream.
+     * @param extension The file extension describing the data's format, such as "pdf".
+     * @param settings  The job settings, or null for defaults. The map is not modified.
+     * @return The job ID of the initiated print operation.
+     * @throws IOException        If an error occurs while reading the stream or during the API request.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public String print(InputStream in, long length, String extension, Map<String, Object> settings)
+            throws IOException, URISyntaxException {
+        // Reject the format before a job is created for it
+        validatedExtension(extension);
+        JSONObject jobData = printSetting(settings);
+        uploadFile(jobData.getString("upload_uri"), in, length, extension, printMode(settings));
+        executePrint(jobData.getString("id"));
+        return jobData.getString("id");
+    }
+
+    /**
+     * Initiates a print operation for the remaining bytes of a buffer, such as a document rendered in
+     * memory or a memory-mapped file.
+     *
+     * @param data      The data to print. The buffer's position is not changed.
+     * @param extension The file extension describing the data's format, such as "pdf".
+     * @param settings  The job settings, or null for defaults. The map is not modified.
+     * @return The job ID of the initiated print operation.
+     * @throws IOException        If an error occurs during the API request.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public String print(ByteBuffer data, String extension, Map<String, Object> settings) throws IOException, URISyntaxException {
+        validatedExtension(extension);
+        JSONObject jobData = printSetting(settings);
+        uploadFile(jobData.getString("upload_uri"), data, extension, printMode(settings));
+        executePrint(jobData.getString("id"));
+        return jobData.getString("id");
+    }
+
+    /**
+     * Initiates a print operation for the specified file path with typed settings. The settings come first
+     * so that calls passing null for the map-based settings of {@link #print(String, Map)} stay unambiguous.
+     *
+     * @param settings The job settings.
+     * @param filePath The path to the file to be printed.
+     * @return The job ID of the initiated print operation.
+     * @throws IOException        If an error occurs during the API request.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public String print(PrintSetting settings, String filePath) throws IOException, URISyntaxException {
+        JobCreated job = createJob(settings);
+        uploadFile(job.getUploadUri(), Paths.get(filePath), settings.getPrintMode().getValue());
+        executePrint(job.getId());
+        return job.getId();
+    }
+
+    private String printJob(JSONObject jobData, String filePath, String printMode) throws IOException, URISyntaxException {
         // Upload file for printing
-        uploadFile(jobData.getString("upload_uri"), Paths.get(filePath), "document");
+        uploadFile(jobData.getString("upload_uri"), Paths.get(filePath), printMode);
         executePrint(jobData.getString("id"));
         // Return the Job ID
         return jobData.getString("id");
     }
 
+    /**
+     * Initiates a print operation for the specified file path without blocking the calling thread.
+     * Job creation, upload and execution are chained on the HTTP client's dispatcher.
+     *
+     * @param filePath The path to the file to be printed.
+     * @return A future completed with the job ID of the initiated print operation.
+     */
+    public CompletableFuture<String> printAsync(String filePath) {
+        return printAsync(filePath, null);
+    }
+
+    /**
+     * Initiates a print operation with the given settings without blocking the calling thread.
+     *
+     * @param filePath The path to the file to be printed.
+     * @param settings The job settings, or null for defaults. The map is not modified.
+     * @return A future completed with the job ID of the initiated print operation.
+     */
+    public CompletableFuture<String> printAsync(String filePath, Map<String, Object> settings) {
+        return printSettingAsync(settings).thenCompose(jobData -> printJobAsync(jobData, filePath, printMode(settings)));
+    }
+
+    /**
+     * Initiates a print operation with typed settings without blocking the calling thread.
+     *
+     * @param settings The job settings.
+     * @param filePath The path to the file to be printed.
+     * @return A future completed with the job ID of the initiated print operation.
+     */
+    public CompletableFuture<String> printAsync(PrintSetting settings, String filePath) {
+        String printMode = settings.getPrintMode().getValue();
+        return createJobAsync(settings).thenCompose(job -> uploadFileAsync(job.getUploadUri(), Paths.get(filePath), printMode)
+                .thenCompose(v -> executePrintAsync(job.getId()))
+                .thenApply(v -> job.getId()));
+    }
+
+    /**
+     * Initiates a print operation using a job taken from a pool of pre-created jobs without blocking
+     * the calling thread.
+     *
+     * @param filePath The path to the file to be printed.
+     * @param jobPool  The pool to take the job from. It must belong to this printer.
+     * @return A future completed with the job ID of the initiated print operation.
+     */
+    public CompletableFuture<String> printPooledAsync(String filePath, PrintJobPool jobPool) {
+        String printMode = printMode(jobPool.getSettings());
+        return jobPool.takeAsync().thenCompose(jobData -> printJobAsync(jobData, filePath, printMode));
+    }
+
+    private CompletableFuture<String> printJobAsync(JSONObject jobData, String filePath, String printMode) {
+        String jobId = jobData.getString("id");
+        return uploadFileAsync(jobData.getString("upload_uri"), Paths.get(filePath), printMode)
+                .thenCompose(v -> executePrintAsync(jobId))
+                .thenApply(v -> jobId);
+    }
+
+    /**
+     * Returns the print mode requested by the given settings.
+     *
+     * @param settings The job settings, or null.
+     * @return The print mode, "document" unless the settings say otherwise.
+     */
+    private static String printMode(Map<String, Object> settings) {
+        if (settings == null) {
+            return "document";
+        }
+        return String.valueOf(settings.getOrDefault("print_mode", "document"));
+    }
+
     /**
      * Retrieves the file extension from the given file name.
      *
@@ -191,39 +481,197 @@ public class Printer {
      * @throws URISyntaxException If there's an error in URI parsing or construction.
      */
     public void uploadFile(String uploadUri, Path filePath, String printMode) throws IOException, URISyntaxException {
-        // 1. Extract and validate file extension
-        String extension = getFileExtension(filePath.toString()).toLowerCase();
+        this.authCtx.send(uploadFileRequest(uploadUri, filePath, printMode));
+        recordUpload(filePath.toFile().length());
+    }
+
+    /**
+     * Uploads a file to a specified URI for printing without blocking the calling thread.
+     *
+     * @param uploadUri The URI to which the file should be uploaded.
+     * @param filePath  The path to the file to be uploaded.
+     * @param printMode The mode in which the file should be printed.
+     * @return A future completed once the upload has finished. It completes exceptionally with
+     *         {@link IllegalArgumentException} or {@link URISyntaxException} if the request cannot be built.
+     */
+    public CompletableFuture<Void> uploadFileAsync(String uploadUri, Path filePath, String printMode) {
+        Request.Builder requestBuilder;
+        try {
+            requestBuilder = uploadFileRequest(uploadUri, filePath, printMode);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return this.authCtx.sendAsync(requestBuilder).thenApply(response -> {
+            recordUpload(filePath.toFile().length());
+            return null;
+        });
+    }
+
+    /**
+     * Uploads a file to a specified URI for printing through an {@link UploadEngine}, which streams the file
+     * in chunks, reports progress and retries failed requests.
+     *
+     * @param uploadUri The URI to which the file should be uploaded.
+     * @param filePath  The path to the file to be uploaded.
+     * @param printMode The mode in which the file should be printed.
+     * @param engine    The engine performing the upload.
+     * @throws IOException        If the upload still fails after the engine's retries.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public void uploadFile(String uploadUri, Path filePath, String printMode, UploadEngine engine) throws IOException, URISyntaxException {
+        engine.upload(this.authCtx, uploadUrl(uploadUri, validatedExtension(filePath)).toString(), filePath);
+        recordUpload(filePath.toFile().length());
+    }
+
+    /**
+     * Uploads data read from a stream to a specified URI for printing. The data is streamed to the API
+     * without being buffered in memory or on disk, and the stream is not closed.
+     *
+     * @param uploadUri The URI to which the data should be uploaded.
+     * @param in        The stream to read the data from.
+     * @param length    The number of bytes to upload, or -1 to upload up to the end of the stream.
+     * @param extension The file extension describing the data's format, such as "pdf".
+     * @param printMode The mode in which the data should be printed.
+     * @throws IOException        If an error occurs while reading the stream or during the API request.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public void uploadFile(String uploadUri, InputStream in, long length, String extension, String printMode)
+            throws IOException, URISyntaxException {
+        String validExtension = validatedExtension(extension);
+        this.authCtx.send(uploadRequest(uploadUri, validExtension, StreamingRequestBodies.create(OCTET_STREAM, in, length)));
+        recordUpload(length);
+    }
+
+    /**
+     * Uploads the remaining bytes of a buffer to a specified URI for printing. The buffer may be a
+     * {@link java.nio.MappedByteBuffer}, in which case the data is sent straight from the mapping.
+     * The buffer's position is not changed.
+     *
+     * @param uploadUri The URI to which the data should be uploaded.
+     * @param data      The data to upload.
+     * @param extension The file extension describing the data's format, such as "pdf".
+     * @param printMode The mode in which the data should be printed.
+     * @throws IOException        If an error occurs during the API request.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public void uploadFile(String uploadUri, ByteBuffer data, String extension, String printMode)
+            throws IOException, URISyntaxException {
+        String validExtension = validatedExtension(extension);
+        long length = data.remaining();
+        this.authCtx.send(uploadRequest(uploadUri, validExtension, StreamingRequestBodies.create(OCTET_STREAM, data)));
+        recordUpload(length);
+    }
+
+    /**
+     * Uploads data read from a channel to a specified URI for printing, starting at the channel's current
+     * position. The channel is not closed.
+     *
+     * @param uploadUri The URI to which the data should be uploaded.
+     * @param channel   The channel to read the data from.
+     * @param length    The number of bytes to upload, or -1 to upload up to the end of the channel.
+     * @param extension The file extension describing the data's format, such as "pdf".
+     * @param printMode The mode in which the data should be printed.
+     * @throws IOException        If an error occurs while reading the channel or during the API request.
+     * @throws URISyntaxException If there's an error in URI parsing or construction.
+     */
+    public void uploadFile(String uploadUri, ReadableByteChannel channel, long length, String extension, String printMode)
+            throws IOException, URISyntaxException {
+        String validExtension = validatedExtension(extension);
+        this.authCtx.send(uploadRequest(uploadUri, validExtension, StreamingRequestBodies.create(OCTET_STREAM, channel, length)));
+        recordUpload(length);
+    }
+
+    private void recordUpload(long bytes) {
+        MetricsRecorder metrics = this.authCtx.metricsRecorder;
+        // Unset on contexts created without running their constructor
+        if (metrics != null) {
+            metrics.recordUpload(bytes);
+        }
+    }
+
+    private String validatedExtension(Path filePath) {
+        return validatedExtension(getFileExtension(filePath.toString()));
+    }
+
+    private String validatedExtension(String extension) {
+        extension = extension == null ? "" : extension.toLowerCase();
         if (!VALID_EXTENSIONS.contains(extension)) {
             throw new IllegalArgumentException(extension + " is not a valid printing extension.");
         }
+        return extension;
+    }
 
-        // Get extension from file path
-        URI uri = new URI(uploadUri);
-        URI BaseUri = new URI(this.authCtx.baseUrl);
-        String newQuery = uri.getQuery() + "&File=1." + extension;
-        URI newUri = new URI(uri.getScheme(), BaseUri.getAuthority(), uri.getPath(), newQuery, uri.getFragment());
-        String path = newUri.toString();
-        // 3. Determine content type
-        String contentType = "application/octet-stream";
-        if ("photo".equalsIgnoreCase(printMode)) {
-            contentType = "image/jpeg";
+    /**
+     * Builds the upload URL on the configured host, telling the API the file's extension.
+     */
+    private HttpUrl uploadUrl(String uploadUri, String extension) throws URISyntaxException {
+        HttpUrl uri = HttpUrl.parse(uploadUri);
+        if (uri == null) {
+            throw new URISyntaxException(String.valueOf(uploadUri), "Not an HTTP URL");
+        }
+        HttpUrl baseUri = this.printerTemplate.baseUrl();
+        if (baseUri == null) {
+            throw new URISyntaxException(String.valueOf(this.authCtx.baseUrl), "Not an HTTP URL");
         }
+        String query = uri.encodedQuery();
+        return uri.newBuilder()
+                .host(baseUri.host())
+                .port(baseUri.port())
+                .encodedQuery((query == null ? "" : query + "&") + "File=1." + extension)
+                .build();
+    }
 
-        // 4. Read file data
-        File file = new File(String.valueOf(filePath));
+    private Request.Builder infoRequest() {
+        return this.printerTemplate.request()
+                .header("Content-Type", "application/json")
+                .get();
+    }
+
+    private Request.Builder jobInfoRequest(String jobId) {
+        return this.jobsTemplate.request(this.jobsTemplate.url(jobId))
+                .header("Content-Type", "application/json")
+                .get();
+    }
+
+    private Request.Builder printSettingRequest(Map<String, Object> settings) {
+        // Merge into a copy, the caller's map may be shared between jobs
+        Map<String, Object> merged = PrintSetting.mergeWithDefaultSettings(settings == null ? null : new HashMap<>(settings));
+        PrintSetting.validateSettings(merged);
+        String jsonBody = new JSONObject(merged).toString();
+        return this.jobsTemplate.request()
+                .header("Content-Type", "application/json")
+                .post(RequestBody.create(JSON, jsonBody));
+    }
+
+    private Request.Builder createJobRequest(PrintSetting settings) {
+        return this.jobsTemplate.request()
+                .header("Content-Type", "application/json")
+                .post(RequestBody.create(JSON, settings.toJson()));
+    }
+
+    private Request.Builder executePrintRequest(String jobId) {
+        return this.jobsTemplate.request(this.jobsTemplate.url(jobId, "print"))
+                .post(EMPTY_BODY);
+    }
 
-        // 5. Set headers
-        RequestBody requestBody = RequestBody.create(MediaType.parse("application/octet-stream"), file);
+    private Request.Builder uploadFileRequest(String uploadUri, Path filePath, String printMode) throws URISyntaxException {
+        // 1. Extract and validate file extension
+        HttpUrl url = uploadUrl(uploadUri, validatedExtension(filePath));
+
+        // 2. Read file data
+        File file = new File(String.valueOf(filePath));
 
-        // 6. Send the file for upload using POST request
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(path)
+        // 3. Send the file for upload using POST request
+        return this.printerTemplate.request(url)
                 .header("Content-Length", String.valueOf(file.length()))
                 .header("Content-Type", "application/octet-stream")
-                .header("Authorization", "Bearer " + this.authCtx.accessToken)
-                .post(requestBody);
+                .post(RequestBody.create(OCTET_STREAM, file));
+    }
 
-        this.authCtx.send(requestBuilder);
+    private Request.Builder uploadRequest(String uploadUri, String extension, RequestBody requestBody) throws URISyntaxException {
+        return this.printerTemplate.request(uploadUrl(uploadUri, extension))
+                .header("Content-Type", "application/octet-stream")
+                .post(requestBody);
     }
 
     /**
@@ -232,8 +680,8 @@ public class Printer {
      * @param jsonObject The JSONObject to be converted.
      * @return A map representation of the given JSONObject.
      */
-    private Map<String, String> jsonObjectToMap(JSONObject jsonObject) {
-        Map<String, String> map = new HashMap<>();
+    static Map<String, String> jsonObjectToMap(JSONObject jsonObject) {
+        Map<String, String> map = new HashMap<>(jsonObject.length() * 4 / 3 + 1);
         for (String key : jsonObject.keySet()) {
             Object value = jsonObject.get(key);
             if (value instanceof String) {
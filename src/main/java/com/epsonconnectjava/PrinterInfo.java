@@ -0,0 +1,56 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+
+import java.util.Map;
+
+/**
+ * Information about a printer, as returned by the API.
+ * <p>
+ * Fields are read from the response when they are asked for. Nested values keep their JSON structure.
+ */
+public final class PrinterInfo {
+    private final JSONObject json;
+
+    PrinterInfo(JSONObject json) {
+        this.json = json;
+    }
+
+    public String getPrinterName() {
+        return JsonMapView.string(json, "printer_name");
+    }
+
+    public String getSerialNumber() {
+        return JsonMapView.string(json, "serial_no");
+    }
+
+    /**
+     * @return Whether the printer is connected to Epson Connect.
+     */
+    public boolean isConnected() {
+        return json.optBoolean("ec_connected");
+    }
+
+    /**
+     * Returns a field as it appears in the response, for fields without a getter.
+     *
+     * @param key The field name
+     * @return A String, Boolean, Number, JSONObject or JSONArray, or null if the field is absent. Nested
+     *         objects are shared with this instance and must not be modified.
+     */
+    public Object get(String key) {
+        return json.opt(key);
+    }
+
+    /**
+     * @return A read-only view of the fields in the form returned by {@link Printer#info()}.
+     */
+    public Map<String, String> asMap() {
+        return new JsonMapView(json);
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+}
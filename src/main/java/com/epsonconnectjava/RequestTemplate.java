@@ -0,0 +1,137 @@
+package com.epsonconnectjava;
+
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+
+import java.util.Objects;
+
+/**
+ * The parts shared by every request to one device's resource.
+ * <p>
+ * The resource URL is parsed once and rebuilt only if the base URL or device ID of the authentication
+ * context changes, and the authorization header is rebuilt only when the access token does. Both are kept in
+ * immutable holders that are swapped with a single write, so concurrent callers see either the old or the
+ * new value and never a mix.
+ */
+final class RequestTemplate {
+
+    static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    static final MediaType OCTET_STREAM = MediaType.get("application/octet-stream");
+
+    private final AuthCtx authCtx;
+    // Path before the device ID, such as "/api/1/printing/printers/"
+    private final String prefix;
+    // Path after the device ID, such as "/jobs", or an empty string
+    private final String suffix;
+    private volatile Urls urls;
+
+    /**
+     * Creates a template for the resource at {@code baseUrl + prefix + deviceId + suffix}.
+     */
+    RequestTemplate(AuthCtx authCtx, String prefix, String suffix) {
+        this.authCtx = authCtx;
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Returns the resource URL.
+     */
+    HttpUrl url() {
+        return urls().resource;
+    }
+
+    /**
+     * Returns the resource URL extended by the given path segments.
+     */
+    HttpUrl url(String... segments) {
+        HttpUrl.Builder builder = urls().resource.newBuilder();
+        for (String segment : segments) {
+            builder.addPathSegment(segment);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the API base URL, or null if it is not a valid HTTP URL.
+     */
+    HttpUrl baseUrl() {
+        return urls().base;
+    }
+
+    /**
+     * Starts a request for the resource URL, carrying the authorization header.
+     */
+    Request.Builder request() {
+        return request(url());
+    }
+
+    /**
+     * Starts a request for the given URL, carrying the authorization header.
+     */
+    Request.Builder request(HttpUrl url) {
+        return new Request.Builder()
+                .url(url)
+                .header("Authorization", authorization(this.authCtx));
+    }
+
+    private Urls urls() {
+        String baseUrl = this.authCtx.baseUrl;
+        String deviceId = this.authCtx.getDeviceId();
+        Urls current = this.urls;
+        if (current == null || !current.matches(baseUrl, deviceId)) {
+            current = new Urls(baseUrl, deviceId, this.prefix, this.suffix);
+            this.urls = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the authorization header value for the context's current access token.
+     *
+     * @param authCtx The authentication context.
+     * @return The header value.
+     */
+    static String authorization(AuthCtx authCtx) {
+        String token = authCtx.accessToken;
+        AuthHeader header = authCtx.authHeader;
+        // The token is a public field, so it may have been replaced without going through a refresh
+        if (header == null || header.token != token) {
+            header = new AuthHeader(token);
+            authCtx.authHeader = header;
+        }
+        return header.value;
+    }
+
+    /**
+     * An access token and the authorization header built from it.
+     */
+    static final class AuthHeader {
+        private final String token;
+        private final String value;
+
+        AuthHeader(String token) {
+            this.token = token;
+            this.value = "Bearer " + token;
+        }
+    }
+
+    private static final class Urls {
+        private final String baseUrl;
+        private final String deviceId;
+        private final HttpUrl base;
+        private final HttpUrl resource;
+
+        private Urls(String baseUrl, String deviceId, String prefix, String suffix) {
+            this.baseUrl = baseUrl;
+            this.deviceId = deviceId;
+            this.base = baseUrl == null ? null : HttpUrl.parse(baseUrl);
+            this.resource = HttpUrl.get(baseUrl + prefix + deviceId + suffix);
+        }
+
+        private boolean matches(String baseUrl, String deviceId) {
+            return Objects.equals(this.baseUrl, baseUrl) && Objects.equals(this.deviceId, deviceId);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.epsonconnectjava;
+
+import com.epsonconnectjava.http.Endpoint;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * A read cache for API responses, keyed by device ID and endpoint.
+ * <p>
+ * Responses are kept for {@code ttlMillis} and at most {@code maxEntries} are held, evicting the least
+ * recently used one. Requests for a key whose response is still being loaded wait for that load instead of
+ * starting another one, so concurrent identical reads cost a single network call. Failed loads are not
+ * cached. Invalidating a key also keeps a load already in flight from being cached. One cache can be shared
+ * by the printers and scanners of many tenants.
+ */
+public class ResponseCache {
+
+    private final long ttlMillis;
+    // Least recently used first, guarded by itself
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /**
+     * Creates a cache.
+     *
+     * @param ttlMillis  Time a response is served from the cache.
+     * @param maxEntries Maximum number of cached responses.
+     */
+    public ResponseCache(long ttlMillis, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached response for a key, loading it on the calling thread if needed.
+     *
+     * @param deviceId The device the response belongs to.
+     * @param endpoint The endpoint that produced the response.
+     * @param loader   Sends the request, called only if no fresh or in-flight response exists.
+     * @return The response.
+     * @throws IOException If the load fails.
+     */
+    public JSONObject get(String deviceId, Endpoint endpoint, Callable<JSONObject> loader) throws IOException {
+        Key key = new Key(deviceId, endpoint);
+        Entry entry = new Entry();
+        Entry existing = putIfAbsentOrStale(key, entry);
+        if (existing == null) {
+            try {
+                complete(key, entry, loader.call(), null);
+            } catch (Exception e) {
+                complete(key, entry, null, e);
+            }
+        }
+        try {
+            return (existing != null ? existing : entry).future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Returns the cached response for a key, loading it asynchronously if needed.
+     *
+     * @param deviceId The device the response belongs to.
+     * @param endpoint The endpoint that produced the response.
+     * @param loader   Sends the request, called only if no fresh or in-flight response exists.
+     * @return A future completed with the response.
+     */
+    public CompletableFuture<JSONObject> getAsync(String deviceId, Endpoint endpoint, Supplier<CompletableFuture<JSONObject>> loader) {
+        Key key = new Key(deviceId, endpoint);
+        Entry entry = new Entry();
+        Entry existing = putIfAbsentOrStale(key, entry);
+        // Each caller gets its own copy, so cancelling or completing it does not affect the others
+        if (existing != null) {
+            return existing.future.copy();
+        }
+        CompletableFuture<JSONObject> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((response, error) -> complete(key, entry, response,
+                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+        return entry.future.copy();
+    }
+
+    /**
+     * Drops the cached response for a key.
+     *
+     * @param deviceId The device the response belongs to.
+     * @param endpoint The endpoint that produced the response.
+     */
+    public void invalidate(String deviceId, Endpoint endpoint) {
+        synchronized (this.entries) {
+            this.entries.remove(new Key(deviceId, endpoint));
+        }
+    }
+
+    /**
+     * Drops all cached responses.
+     */
+    public void invalidateAll() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cached and in-flight responses.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Stores the entry unless a fresh or in-flight one exists.
+     *
+     * @return The existing entry to use instead, or null if the given entry was stored and has to be loaded.
+     */
+    private Entry putIfAbsentOrStale(Key key, Entry entry) {
+        synchronized (this.entries) {
+            Entry existing = this.entries.get(key);
+            if (existing != null && (!existing.future.isDone()
+                    || System.currentTimeMillis() - existing.loadedAt < this.ttlMillis)) {
+                return existing;
+            }
+            this.entries.put(key, entry);
+            return null;
+        }
+    }
+
+    private void complete(Key key, Entry entry, JSONObject response, Throwable error) {
+        if (error == null) {
+            entry.loadedAt = System.currentTimeMillis();
+        } else {
+            synchronized (this.entries) {
+                // Only remove our own entry, it may have been invalidated and replaced meanwhile
+                this.entries.remove(key, entry);
+            }
+        }
+        if (error == null) {
+            entry.future.complete(response);
+        } else {
+            entry.future.completeExceptionally(error);
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<JSONObject> future = new CompletableFuture<>();
+        // Set before the future completes, read only once it has
+        private volatile long loadedAt;
+    }
+
+    private static final class Key {
+        private final String deviceId;
+        private final Endpoint endpoint;
+
+        private Key(String deviceId, Endpoint endpoint) {
+            this.deviceId = deviceId;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(this.deviceId, other.deviceId) && this.endpoint == other.endpoint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.deviceId) * 31 + this.endpoint.hashCode();
+        }
+    }
+}
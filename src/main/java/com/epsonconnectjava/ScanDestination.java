@@ -0,0 +1,125 @@
+package com.epsonconnectjava;
+
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A scan destination registered on, or to be registered on, a scanner.
+ * <p>
+ * Destinations listed by the API keep the response they were read from and decode their fields on access.
+ */
+public final class ScanDestination {
+    // The API's representation, or null for destinations created by the caller
+    private final JSONObject json;
+    private final String id;
+    private final String aliasName;
+    private final String destination;
+    private final String type;
+
+    /**
+     * Creates a destination that is not registered yet.
+     *
+     * @param aliasName   The name shown on the scanner
+     * @param destination The email address or URL scans are sent to
+     * @param type        The type of the destination, "mail" or "url"
+     */
+    public ScanDestination(String aliasName, String destination, String type) {
+        this(null, aliasName, destination, type);
+    }
+
+    ScanDestination(String id, String aliasName, String destination, String type) {
+        this.json = null;
+        this.id = id;
+        this.aliasName = aliasName;
+        this.destination = destination;
+        this.type = type;
+    }
+
+    ScanDestination(JSONObject json) {
+        this.json = json;
+        this.id = null;
+        this.aliasName = null;
+        this.destination = null;
+        this.type = null;
+    }
+
+    static ScanDestination fromMap(Map<String, String> map) {
+        return new ScanDestination(map.get("id"), map.get("alias_name"), map.get("destination"), map.get("type"));
+    }
+
+    /**
+     * @return The ID assigned by the API, or null if the destination is not registered.
+     */
+    public String getId() {
+        return json != null ? JsonMapView.string(json, "id") : id;
+    }
+
+    public String getAliasName() {
+        return json != null ? JsonMapView.string(json, "alias_name") : aliasName;
+    }
+
+    public String getDestination() {
+        return json != null ? JsonMapView.string(json, "destination") : destination;
+    }
+
+    public String getType() {
+        return json != null ? JsonMapView.string(json, "type") : type;
+    }
+
+    /**
+     * @return A read-only view of the fields in the form returned by the map-based methods of {@link Scanner}.
+     */
+    public Map<String, String> asMap() {
+        if (json != null) {
+            return new JsonMapView(json);
+        }
+        Map<String, String> map = new HashMap<>();
+        putIfNotNull(map, "id", id);
+        putIfNotNull(map, "alias_name", aliasName);
+        putIfNotNull(map, "destination", destination);
+        putIfNotNull(map, "type", type);
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static void putIfNotNull(Map<String, String> map, String key, String value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * Checks whether two destinations send scans to the same place under the same name, ignoring their IDs.
+     *
+     * @param other The destination to compare with
+     * @return Whether alias name, destination and type are equal
+     */
+    public boolean sameSettings(ScanDestination other) {
+        return Objects.equals(getAliasName(), other.getAliasName())
+                && Objects.equals(getDestination(), other.getDestination())
+                && Objects.equals(getType(), other.getType());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ScanDestination)) {
+            return false;
+        }
+        ScanDestination other = (ScanDestination) o;
+        return Objects.equals(getId(), other.getId()) && sameSettings(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getAliasName(), getDestination(), getType());
+    }
+
+    @Override
+    public String toString() {
+        return "ScanDestination{id=" + getId() + ", aliasName=" + getAliasName() + ", destination=" + getDestination()
+                + ", type=" + getType() + "}";
+    }
+}
@@ -0,0 +1,287 @@
+package com.epsonconnectjava;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Brings the scan destinations of many scanners in line with a desired state.
+ * <p>
+ * For each scanner the registered destinations are listed once and matched to the desired ones by alias
+ * name. A desired destination that is missing is added, one whose address or type differs is updated, and
+ * one that already matches is left alone. If an alias is registered more than once, the copy that matches
+ * the desired settings is kept, or else the first one, and the other copies are deleted. Registered
+ * destinations that are not desired are deleted if {@code deleteUnlisted} is set. The operations of one
+ * scanner run one after another, while up to {@code maxConcurrency} scanners are synchronized at the same
+ * time. A failing operation is recorded in its {@link Result} and does not stop the others.
+ */
+public class ScanDestinationSync {
+
+    /**
+     * The operation performed for a destination.
+     */
+    public enum Action {
+        ADD,
+        UPDATE,
+        DELETE,
+        UNCHANGED
+    }
+
+    // Maximum number of scanners synchronized at the same time
+    private final int maxConcurrency;
+    // Whether registered destinations missing from the desired state are deleted
+    private final boolean deleteUnlisted;
+
+    /**
+     * Creates a synchronizer.
+     *
+     * @param maxConcurrency Maximum number of scanners synchronized at the same time.
+     * @param deleteUnlisted Whether registered destinations missing from the desired state are deleted.
+     */
+    public ScanDestinationSync(int maxConcurrency, boolean deleteUnlisted) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.deleteUnlisted = deleteUnlisted;
+    }
+
+    /**
+     * Synchronizes the destinations of many scanners and waits for all of them to finish.
+     *
+     * @param desired The desired destinations per scanner.
+     * @return One result per destination that was examined, grouped by scanner in the order of the given map.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public List<Result> sync(Map<Scanner, ? extends Collection<ScanDestination>> desired) throws InterruptedException {
+        try {
+            return syncAsync(desired).get();
+        } catch (ExecutionException e) {
+            // Failures are captured in the results, so the synchronization itself never fails
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Synchronizes the destinations of many scanners without blocking.
+     *
+     * @param desired The desired destinations per scanner.
+     * @return A future completed with one result per destination that was examined, grouped by scanner in
+     *         the order of the given map.
+     * @throws IllegalArgumentException If an alias name is desired more than once for the same scanner.
+     */
+    public CompletableFuture<List<Result>> syncAsync(Map<Scanner, ? extends Collection<ScanDestination>> desired) {
+        List<Scanner> scanners = new ArrayList<>(desired.size());
+        List<Collection<ScanDestination>> targets = new ArrayList<>(desired.size());
+        for (Map.Entry<Scanner, ? extends Collection<ScanDestination>> entry : desired.entrySet()) {
+            Set<String> aliases = new HashSet<>();
+            for (ScanDestination destination : entry.getValue()) {
+                if (!aliases.add(destination.getAliasName())) {
+                    throw new IllegalArgumentException("Alias " + destination.getAliasName() + " is desired more than once");
+                }
+            }
+            scanners.add(entry.getKey());
+            targets.add(entry.getValue());
+        }
+        List<CompletableFuture<List<Result>>> perScanner = new ArrayList<>(scanners.size());
+        for (int i = 0; i < scanners.size(); i++) {
+            perScanner.add(new CompletableFuture<>());
+        }
+        AtomicInteger next = new AtomicInteger();
+        Runnable lane = new Runnable() {
+            @Override
+            public void run() {
+                // Loops while scanners finish synchronously and continues from the callback otherwise
+                while (true) {
+                    int index = next.getAndIncrement();
+                    if (index >= scanners.size()) {
+                        return;
+                    }
+                    CompletableFuture<List<Result>> done = syncScanner(scanners.get(index), targets.get(index));
+                    done.thenAccept(perScanner.get(index)::complete);
+                    if (!done.isDone()) {
+                        done.thenRun(this);
+                        return;
+                    }
+                }
+            }
+        };
+        for (int i = 0; i < Math.min(this.maxConcurrency, scanners.size()); i++) {
+            lane.run();
+        }
+        return CompletableFuture.allOf(perScanner.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<Result> results = new ArrayList<>();
+            for (CompletableFuture<List<Result>> future : perScanner) {
+                results.addAll(future.join());
+            }
+            return Collections.unmodifiableList(results);
+        });
+    }
+
+    /**
+     * Synchronizes one scanner. The returned future never completes exceptionally.
+     */
+    private CompletableFuture<List<Result>> syncScanner(Scanner scanner, Collection<ScanDestination> desired) {
+        CompletableFuture<List<ScanDestination>> listed;
+        try {
+            listed = scanner.listDestinationsAsync();
+        } catch (RuntimeException e) {
+            listed = CompletableFuture.failedFuture(e);
+        }
+        return listed.handle((current, error) -> {
+            List<Result> results = Collections.synchronizedList(new ArrayList<>());
+            if (error != null) {
+                for (ScanDestination destination : desired) {
+                    results.add(new Result(scanner, destination.getAliasName(), null, destination, unwrap(error)));
+                }
+                return CompletableFuture.completedFuture(results);
+            }
+            // Aliases are not unique on the device, so every copy is kept to be reconciled
+            Map<String, List<ScanDestination>> registered = new HashMap<>(current.size() * 4 / 3 + 1);
+            for (ScanDestination destination : current) {
+                registered.computeIfAbsent(destination.getAliasName(), alias -> new ArrayList<>(1)).add(destination);
+            }
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (ScanDestination target : desired) {
+                List<ScanDestination> copies = registered.remove(target.getAliasName());
+                ScanDestination existing = pick(copies, target);
+                if (copies != null) {
+                    for (ScanDestination copy : copies) {
+                        if (copy != existing) {
+                            chain = delete(chain, results, scanner, copy);
+                        }
+                    }
+                }
+                if (existing == null) {
+                    chain = then(chain, results, scanner, target, Action.ADD, () ->
+                            scanner.addAsync(target.getAliasName(), target.getDestination(), target.getType())
+                                    .thenApply(ScanDestination::fromMap));
+                } else if (!existing.sameSettings(target)) {
+                    chain = then(chain, results, scanner, target, Action.UPDATE, () ->
+                            scanner.updateAsync(existing.getId(), target.getAliasName(), target.getDestination(), target.getType())
+                                    .thenApply(ScanDestination::fromMap));
+                } else {
+                    results.add(new Result(scanner, target.getAliasName(), Action.UNCHANGED, existing, null));
+                }
+            }
+            if (this.deleteUnlisted) {
+                for (List<ScanDestination> unlisted : registered.values()) {
+                    for (ScanDestination copy : unlisted) {
+                        chain = delete(chain, results, scanner, copy);
+                    }
+                }
+            }
+            return chain.thenApply(v -> results);
+        }).thenCompose(future -> future);
+    }
+
+    /**
+     * Picks the registered copy of an alias to keep: the first one matching the desired settings, or else the
+     * first one. Returns null if the alias is not registered.
+     */
+    private static ScanDestination pick(List<ScanDestination> copies, ScanDestination target) {
+        if (copies == null) {
+            return null;
+        }
+        for (ScanDestination copy : copies) {
+            if (copy.sameSettings(target)) {
+                return copy;
+            }
+        }
+        return copies.get(0);
+    }
+
+    private static CompletableFuture<Void> delete(CompletableFuture<Void> chain, List<Result> results, Scanner scanner,
+                                                  ScanDestination registered) {
+        return then(chain, results, scanner, registered, Action.DELETE, () ->
+                scanner.deleteAsync(registered.getId()).thenApply(response -> registered));
+    }
+
+    /**
+     * Appends an operation to a scanner's chain, recording its outcome instead of failing the chain.
+     */
+    private static CompletableFuture<Void> then(CompletableFuture<Void> chain, List<Result> results, Scanner scanner,
+                                                ScanDestination target, Action action,
+                                                Supplier<CompletableFuture<ScanDestination>> operation) {
+        return chain.thenCompose(v -> {
+            CompletableFuture<ScanDestination> future;
+            try {
+                future = operation.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            return future.handle((destination, error) -> {
+                results.add(new Result(scanner, target.getAliasName(), action,
+                        error == null ? destination : target, unwrap(error)));
+                return null;
+            });
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * The outcome for one destination.
+     */
+    public static final class Result {
+        private final Scanner scanner;
+        private final String aliasName;
+        private final Action action;
+        private final ScanDestination destination;
+        private final Throwable error;
+
+        Result(Scanner scanner, String aliasName, Action action, ScanDestination destination, Throwable error) {
+            this.scanner = scanner;
+            this.aliasName = aliasName;
+            this.action = action;
+            this.destination = destination;
+            this.error = error;
+        }
+
+        public Scanner getScanner() {
+            return scanner;
+        }
+
+        public String getAliasName() {
+            return aliasName;
+        }
+
+        /**
+         * @return The operation performed, or null if the scanner's destinations could not be listed.
+         */
+        public Action getAction() {
+            return action;
+        }
+
+        /**
+         * @return The destination as registered after the operation, or the desired or deleted one if the
+         *         operation failed or was a delete.
+         */
+        public ScanDestination getDestination() {
+            return destination;
+        }
+
+        /**
+         * @return The failure, or null if the operation succeeded.
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
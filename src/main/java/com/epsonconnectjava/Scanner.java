@@ -1,15 +1,20 @@
 package com.epsonconnectjava;
 
-import okhttp3.MediaType;
+import com.epsonconnectjava.http.Endpoint;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A handle for managing scan destinations on a scanner device
@@ -25,67 +30,322 @@ public class Scanner {
         VALID_DESTINATION_TYPES.add("url");
     }
 
+    /** Default time after which the destination cache is refreshed from the API. */
+    public static final long DEFAULT_DESTINATION_TTL_MILLIS = 5 * 60 * 1000;
+
     private AuthCtx authCtx;
-    private String path;
-    private Map<String, Map<String, String>> destinationCache = new HashMap<>();
+    // Requests to the scanner's destinations
+    private final RequestTemplate template;
+    // Destinations by ID, filled by list() and kept current by the write methods. Concurrent because the
+    // async methods update it from HTTP dispatcher threads; list responses replace it as a whole
+    private volatile Map<String, CachedDestination> destinationCache = new ConcurrentHashMap<>();
+    // When list() last filled the destination cache, 0 if it never did
+    private volatile long hydratedAt;
+    // Guards the fields below, writes to the destination cache and its replacement
+    private final Object cacheLock = new Object();
+    // Number of writes to the destination cache so far
+    private long cacheWrites;
+    // Number of list requests whose response has not been applied yet
+    private int listsInFlight;
+    // The write number of each destination's latest write while list requests are in flight
+    private final Map<String, Long> writesDuringLists = new HashMap<>();
+    private volatile long destinationTtlMillis = DEFAULT_DESTINATION_TTL_MILLIS;
+    // Cache for the destination list, or null
+    private final ResponseCache responseCache;
 
     public Scanner(AuthCtx authCtx) {
+        this(authCtx, null);
+    }
+
+    /**
+     * Creates a scanner serving {@link #list()} from a cache. Adding, updating and deleting destinations
+     * invalidates the cached list.
+     *
+     * @param authCtx       The authentication context
+     * @param responseCache The cache for the destination list, or null to always ask the API
+     */
+    public Scanner(AuthCtx authCtx, ResponseCache responseCache) {
         this.authCtx = authCtx;
-        this.path = "/api/1/scanning/scanners/" + authCtx.getDeviceId() + "/destinations";
+        this.responseCache = responseCache;
+        this.template = new RequestTemplate(authCtx, "/api/1/scanning/scanners/", "/destinations");
     }
 
     /**
      * Updates destination name, destination and type if provided
      *
      * @param id          The ID of the destination
-     * @param name        The name of the destination
-     * @param destination The destination
-     * @param type        The type of the destination
+     * @param name        The name of the destination, or null to keep the current one
+     * @param destination The destination, or null to keep the current one
+     * @param type        The type of the destination, or null to keep the current one
      * @return Returns JSONObject to Map after updating destination
      * @throws IOException If any IO error occurs
+     * @throws ScannerError If the destination is not registered or the resulting values are invalid
      */
     public Map<String, String> update(String id, String name, String destination, String type) throws IOException {
-        Map<String, String> destCache = destinationCache.get(id);
-        if (destCache == null) {
-//            throw new ScannerError("Scan destination is not yet registered.");
-        }
-        validateDestination(name, destination, type);
+        ScanDestination current = resolveDestination(id);
+        // Fields that are not given keep their current value
+        String newName = name != null ? name : current.getAliasName();
+        String newDestination = destination != null ? destination : current.getDestination();
+        String newType = type != null ? type : current.getType();
+        validateDestination(newName, newDestination, newType);
         delete(id);
 
-        // Construct the data as a JSON string
-        JSONObject data = new JSONObject();
-        data.put("id", id);
-        data.put("alias_name", name != null ? name : destCache.get("alias_name"));
-        data.put("type", type != null ? type : destCache.get("type"));
-        data.put("destination", destination != null ? destination : destCache.get("destination"));
-
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(this.authCtx.baseUrl + path);
-        requestBuilder.header("Content-Type", "application/json");
-        requestBuilder.header("Authorization", "Bearer " + this.authCtx.accessToken);
-        requestBuilder.post(RequestBody.create(MediaType.parse("application/json; charset=utf-8"), data.toString()));
-        JSONObject response = this.authCtx.send(requestBuilder);
-
-        destinationCache.put(id, jsonObjectToMap(response)); // Updating cache
+        JSONObject response = sendWrite(updateRequest(id, newName, newDestination, newType));
+
+        cachePut(id, new ScanDestination(response)); // Updating cache
         return jsonObjectToMap(response);
     }
 
     /**
-     * Lists all scan destinations
+     * Updates a destination without blocking the calling thread.
+     *
+     * @param id          The ID of the destination
+     * @param name        The name of the destination
+     * @param destination The destination
+     * @param type        The type of the destination
+     * @return Returns a future completed with the updated destination as a Map
+     */
+    public CompletableFuture<Map<String, String>> updateAsync(String id, String name, String destination, String type) {
+        return resolveDestinationAsync(id).thenCompose(current -> {
+            String newName = name != null ? name : current.getAliasName();
+            String newDestination = destination != null ? destination : current.getDestination();
+            String newType = type != null ? type : current.getType();
+            validateDestination(newName, newDestination, newType);
+            return deleteAsync(id)
+                    .thenCompose(deleted -> sendWriteAsync(updateRequest(id, newName, newDestination, newType)))
+                    .thenApply(response -> {
+                        cachePut(id, new ScanDestination(response)); // Updating cache
+                        return jsonObjectToMap(response);
+                    });
+        });
+    }
+
+    /**
+     * Finds a destination by its alias name, using the destination cache and refreshing it if it is stale.
+     *
+     * @param alias The alias name of the destination
+     * @return Returns the destination as a Map, or null if no destination has this alias
+     * @throws IOException If any IO error occurs while refreshing the cache
+     */
+    public Map<String, String> findByAlias(String alias) throws IOException {
+        if (isCacheStale()) {
+            list();
+        }
+        for (CachedDestination cached : destinationCache.values()) {
+            if (alias.equals(cached.destination.getAliasName())) {
+                return new HashMap<>(cached.destination.asMap());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets the time after which the destination cache is refreshed from the API on the next lookup.
+     *
+     * @param ttlMillis The time in milliseconds
+     */
+    public void setDestinationCacheTtl(long ttlMillis) {
+        this.destinationTtlMillis = ttlMillis;
+    }
+
+    /**
+     * Lists all scan destinations and refreshes the destination cache with them
      *
      * @return Returns JSONObject to Map after listing all scan destinations
      * @throws IOException If any IO error occurs
      */
     public Map<String, String> list() throws IOException {
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(this.authCtx.baseUrl + path);
-        requestBuilder.header("Content-Type", "application/json");
-        requestBuilder.header("Authorization", "Bearer " + this.authCtx.accessToken);
-        requestBuilder.get();
-        JSONObject response = this.authCtx.send(requestBuilder);
+        long since = beginList();
+        JSONObject response = null;
+        try {
+            response = this.responseCache == null
+                    ? this.authCtx.send(listRequest())
+                    : this.responseCache.get(this.authCtx.getDeviceId(), Endpoint.SCAN_DESTINATIONS, () -> this.authCtx.send(listRequest()));
+        } finally {
+            endList(since, response);
+        }
         return jsonObjectToMap(response);
     }
 
+    /**
+     * Lists all scan destinations without blocking the calling thread.
+     *
+     * @return Returns a future completed with the scan destinations as a Map
+     */
+    public CompletableFuture<Map<String, String>> listAsync() {
+        long since = beginList();
+        CompletableFuture<JSONObject> response;
+        try {
+            response = this.responseCache == null
+                    ? this.authCtx.sendAsync(listRequest())
+                    : this.responseCache.getAsync(this.authCtx.getDeviceId(), Endpoint.SCAN_DESTINATIONS, () -> this.authCtx.sendAsync(listRequest()));
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response
+                .whenComplete((body, error) -> endList(since, error == null ? body : null))
+                .thenApply(this::jsonObjectToMap);
+    }
+
+    /**
+     * Lists all scan destinations as typed objects and refreshes the destination cache with them
+     *
+     * @return Returns the registered destinations
+     * @throws IOException If any IO error occurs
+     */
+    public List<ScanDestination> listDestinations() throws IOException {
+        list();
+        return cachedDestinations();
+    }
+
+    /**
+     * Lists all scan destinations as typed objects without blocking the calling thread.
+     *
+     * @return Returns a future completed with the registered destinations
+     */
+    public CompletableFuture<List<ScanDestination>> listDestinationsAsync() {
+        return listAsync().thenApply(listed -> cachedDestinations());
+    }
+
+    private List<ScanDestination> cachedDestinations() {
+        List<ScanDestination> destinations = new ArrayList<>();
+        for (CachedDestination cached : destinationCache.values()) {
+            destinations.add(cached.destination);
+        }
+        return destinations;
+    }
+
+    /**
+     * Registers a list request about to be sent.
+     *
+     * @return The number of cache writes made before the request
+     */
+    private long beginList() {
+        synchronized (cacheLock) {
+            listsInFlight++;
+            return cacheWrites;
+        }
+    }
+
+    /**
+     * Applies the response of a list request, if there is one, and unregisters the request.
+     *
+     * @param since    The number of cache writes made before the request
+     * @param response The list response, or null if the request failed
+     */
+    private void endList(long since, JSONObject response) {
+        synchronized (cacheLock) {
+            try {
+                hydrate(since, response);
+            } finally {
+                // Later list requests start after every recorded write, so none of them needs the records
+                if (--listsInFlight == 0) {
+                    writesDuringLists.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the destination cache with the destinations of a list response. Destinations written since
+     * the request started keep their cached state, since the response may predate the write. Callers must
+     * hold the cache lock.
+     *
+     * @param since    The number of cache writes made before the request
+     * @param response The list response
+     */
+    private void hydrate(long since, JSONObject response) {
+        JSONArray destinations = response == null ? null : response.optJSONArray("destinations");
+        if (destinations == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, CachedDestination> listed = new ConcurrentHashMap<>(destinations.length() * 4 / 3 + 1);
+        for (int i = 0; i < destinations.length(); i++) {
+            JSONObject destination = destinations.optJSONObject(i);
+            if (destination != null && destination.has("id")) {
+                listed.put(destination.get("id").toString(), new CachedDestination(new ScanDestination(destination), now));
+            }
+        }
+        for (Map.Entry<String, Long> write : writesDuringLists.entrySet()) {
+            if (write.getValue() > since) {
+                CachedDestination current = destinationCache.get(write.getKey());
+                if (current != null) {
+                    listed.put(write.getKey(), current);
+                } else {
+                    listed.remove(write.getKey());
+                }
+            }
+        }
+        destinationCache = listed;
+        hydratedAt = now;
+    }
+
+    private void cachePut(String id, ScanDestination destination) {
+        synchronized (cacheLock) {
+            destinationCache.put(id, new CachedDestination(destination, System.currentTimeMillis()));
+            recordWrite(id);
+        }
+    }
+
+    private void cacheRemove(String id) {
+        synchronized (cacheLock) {
+            destinationCache.remove(id);
+            recordWrite(id);
+        }
+    }
+
+    private void recordWrite(String id) {
+        cacheWrites++;
+        if (listsInFlight > 0) {
+            writesDuringLists.put(id, cacheWrites);
+        }
+    }
+
+    private boolean isCacheStale() {
+        long hydrated = hydratedAt;
+        return hydrated == 0 || System.currentTimeMillis() - hydrated >= destinationTtlMillis;
+    }
+
+    private boolean isStale(CachedDestination cached) {
+        return System.currentTimeMillis() - cached.cachedAt >= destinationTtlMillis;
+    }
+
+    /**
+     * Returns the cached state of a destination, refreshing the cache if the destination is missing or
+     * its cached state has expired.
+     *
+     * @param id The ID of the destination
+     * @return The destination
+     * @throws IOException If any IO error occurs while refreshing the cache
+     * @throws ScannerError If the destination is not registered
+     */
+    private ScanDestination resolveDestination(String id) throws IOException {
+        CachedDestination cached = destinationCache.get(id);
+        if (cached == null || isStale(cached)) {
+            list();
+            cached = destinationCache.get(id);
+        }
+        if (cached == null) {
+            throw new ScannerError("Scan destination is not yet registered.");
+        }
+        return cached.destination;
+    }
+
+    private CompletableFuture<ScanDestination> resolveDestinationAsync(String id) {
+        CachedDestination cached = destinationCache.get(id);
+        if (cached != null && !isStale(cached)) {
+            return CompletableFuture.completedFuture(cached.destination);
+        }
+        return listAsync().thenApply(listed -> {
+            CachedDestination refreshed = destinationCache.get(id);
+            if (refreshed == null) {
+                throw new ScannerError("Scan destination is not yet registered.");
+            }
+            return refreshed.destination;
+        });
+    }
+
 
     /**
      * Converts JSONObject to Map
@@ -94,7 +354,7 @@ public class Scanner {
      * @return Returns the converted Map
      */
     private Map<String, String> jsonObjectToMap(JSONObject jsonObject) {
-        Map<String, String> map = new HashMap<>();
+        Map<String, String> map = new HashMap<>(jsonObject.length() * 4 / 3 + 1);
         for (String key : jsonObject.keySet()) {
             Object value = jsonObject.get(key);
             if (value instanceof String) {
@@ -118,24 +378,26 @@ public class Scanner {
     public Map<String, String> add(String name, String destination, String type) throws IOException {
         validateDestination(name, destination, type);
 
-        // Construct the data as a JSON string
-        JSONObject data = new JSONObject();
-        data.put("alias_name", name);
-        data.put("type", type);
-        data.put("destination", destination);
+        JSONObject response = sendWrite(addRequest(name, destination, type));
+        return cacheAdded(response);
+    }
 
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(this.authCtx.baseUrl + path);
-        requestBuilder.header("Content-Type", "application/json");
-        requestBuilder.header("Authorization", "Bearer " + this.authCtx.accessToken);
-        requestBuilder.post(RequestBody.create(MediaType.parse("application/json; charset=utf-8"), data.toString()));
-        JSONObject response = this.authCtx.send(requestBuilder);
-        Map<String, String> responseMap = jsonObjectToMap(response);
-        // Assuming the response contains an 'id' field which acts as the unique identifier
-        if (responseMap.containsKey("id")) {
-            destinationCache.put(responseMap.get("id"), responseMap);
+    /**
+     * Adds a new scan destination without blocking the calling thread.
+     *
+     * @param name        The name of the destination
+     * @param destination The destination
+     * @param type        The type of the destination
+     * @return Returns a future completed with the added destination as a Map
+     */
+    public CompletableFuture<Map<String, String>> addAsync(String name, String destination, String type) {
+        try {
+            validateDestination(name, destination, type);
+        } catch (ScannerError e) {
+            return CompletableFuture.failedFuture(e);
         }
-        return responseMap;
+        return sendWriteAsync(addRequest(name, destination, type))
+                .thenApply(this::cacheAdded);
     }
 
     /**
@@ -146,19 +408,90 @@ public class Scanner {
      * @throws IOException if any IO error occurs
      */
     public Map<String, String> delete(String id) throws IOException {
+        JSONObject response = sendWrite(deleteRequest(id));
+
+        cacheRemove(id); // Removing from cache
+        return jsonObjectToMap(response);
+    }
+
+    /**
+     * Deletes a scan destination without blocking the calling thread.
+     *
+     * @param id the id of the destination to be deleted
+     * @return Returns a future completed with the delete response as a Map
+     */
+    public CompletableFuture<Map<String, String>> deleteAsync(String id) {
+        return sendWriteAsync(deleteRequest(id)).thenApply(response -> {
+            cacheRemove(id); // Removing from cache
+            return jsonObjectToMap(response);
+        });
+    }
+
+    /**
+     * Sends a request changing the destinations. The cached list is invalidated whether or not it
+     * succeeds, since a failed request may still have been applied.
+     */
+    private JSONObject sendWrite(Request.Builder requestBuilder) throws IOException {
+        try {
+            return this.authCtx.send(requestBuilder);
+        } finally {
+            invalidateList();
+        }
+    }
+
+    private CompletableFuture<JSONObject> sendWriteAsync(Request.Builder requestBuilder) {
+        return this.authCtx.sendAsync(requestBuilder).whenComplete((response, error) -> invalidateList());
+    }
+
+    private void invalidateList() {
+        if (this.responseCache != null) {
+            this.responseCache.invalidate(this.authCtx.getDeviceId(), Endpoint.SCAN_DESTINATIONS);
+        }
+    }
+
+    private Map<String, String> cacheAdded(JSONObject response) {
+        // Assuming the response contains an 'id' field which acts as the unique identifier
+        if (response.has("id")) {
+            cachePut(response.get("id").toString(), new ScanDestination(response));
+        }
+        return jsonObjectToMap(response);
+    }
+
+    private Request.Builder listRequest() {
+        return jsonRequest().get();
+    }
+
+    private Request.Builder addRequest(String name, String destination, String type) {
+        // Construct the data as a JSON string
+        JSONObject data = new JSONObject();
+        data.put("alias_name", name);
+        data.put("type", type);
+        data.put("destination", destination);
+
+        return jsonRequest().post(RequestBody.create(RequestTemplate.JSON, data.toString()));
+    }
+
+    private Request.Builder updateRequest(String id, String name, String destination, String type) {
         // Construct the data as a JSON string
         JSONObject data = new JSONObject();
         data.put("id", id);
+        data.put("alias_name", name);
+        data.put("type", type);
+        data.put("destination", destination);
 
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(this.authCtx.baseUrl + path);
-        requestBuilder.header("Content-Type", "application/json");
-        requestBuilder.header("Authorization", "Bearer " + this.authCtx.accessToken);
-        requestBuilder.delete(RequestBody.create(MediaType.parse("application/json; charset=utf-8"), data.toString()));
-        JSONObject response = this.authCtx.send(requestBuilder);
+        return jsonRequest().post(RequestBody.create(RequestTemplate.JSON, data.toString()));
+    }
 
-        destinationCache.remove(id); // Removing from cache
-        return jsonObjectToMap(response);
+    private Request.Builder deleteRequest(String id) {
+        // Construct the data as a JSON string
+        JSONObject data = new JSONObject();
+        data.put("id", id);
+
+        return jsonRequest().delete(RequestBody.create(RequestTemplate.JSON, data.toString()));
+    }
+
+    private Request.Builder jsonRequest() {
+        return this.template.request().header("Content-Type", "application/json");
     }
 
     /**
@@ -169,6 +502,9 @@ public class Scanner {
      * @param type        The type to validate
      */
     private void validateDestination(String name, String destination, String type) {
+        if (name == null || destination == null || type == null) {
+            throw new ScannerError("Scan destination is missing a name, destination or type.");
+        }
         if (name.length() < 1 || name.length() > 32) {
             throw new ScannerError("Scan destination name too long.");
         }
@@ -181,6 +517,19 @@ public class Scanner {
             throw new ScannerError("Invalid scan destination type " + type + ".");
         }
     }
+
+    /**
+     * A cached destination and when it was cached
+     */
+    private static final class CachedDestination {
+        private final ScanDestination destination;
+        private final long cachedAt;
+
+        private CachedDestination(ScanDestination destination, long cachedAt) {
+            this.destination = destination;
+            this.cachedAt = cachedAt;
+        }
+    }
 }
 
 /**
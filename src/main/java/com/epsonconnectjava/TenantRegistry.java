@@ -0,0 +1,294 @@
+package com.epsonconnectjava;
+
+import com.epsonconnectjava.http.HttpTransport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A registry of authentication contexts for many printer accounts served from one process.
+ * <p>
+ * Contexts are created lazily on first use, keyed by printer email and client ID, and all of them
+ * share a single {@link HttpTransport}. The registry is bounded: when it holds more than
+ * {@code maxTenants} contexts the least recently used one is evicted, and contexts that have not
+ * been used for {@code idleTimeoutMillis} are evicted as the registry is accessed. Evicted contexts
+ * stop their background token renewal and may optionally be deauthenticated.
+ * <p>
+ * Contexts, and the {@link Client}s built on them, must not be kept beyond the current unit of work: once
+ * their tenant is evicted they are no longer renewed, and a deauthenticated one no longer holds a token.
+ * Call {@link #get} or {@link #getClient} again for each unit of work instead.
+ */
+public class TenantRegistry {
+
+    private static final Logger logger = Logger.getLogger(TenantRegistry.class.getName());
+
+    // Transport shared by every context created by this registry
+    private final HttpTransport transport;
+    // API base URL
+    private final String baseUrl;
+    // Maximum number of contexts kept at once
+    private final int maxTenants;
+    // Time after which an unused context is evicted
+    private final long idleTimeoutMillis;
+    // Whether evicted contexts are deauthenticated
+    private final boolean deauthenticateOnEviction;
+    // Store persisting tokens across restarts, or null
+    private final TokenStore tokenStore;
+    // Lease coordinating refreshes with other processes, or null
+    private final TokenLease tokenLease;
+    // Tenants in access order, least recently used first
+    private final LinkedHashMap<String, Tenant> tenants = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Creates a registry using the default transport and API base URL.
+     *
+     * @param maxTenants        Maximum number of contexts kept at once.
+     * @param idleTimeoutMillis Time after which an unused context is evicted.
+     */
+    public TenantRegistry(int maxTenants, long idleTimeoutMillis) {
+        this(HttpTransport.getDefault(), Client.EC_BASE_URL, maxTenants, idleTimeoutMillis, false);
+    }
+
+    /**
+     * Creates a registry.
+     *
+     * @param transport                Transport shared by every context in the registry.
+     * @param baseUrl                  Base URL for the API.
+     * @param maxTenants               Maximum number of contexts kept at once.
+     * @param idleTimeoutMillis        Time after which an unused context is evicted.
+     * @param deauthenticateOnEviction Whether evicted contexts are deauthenticated.
+     */
+    public TenantRegistry(HttpTransport transport, String baseUrl, int maxTenants, long idleTimeoutMillis,
+                          boolean deauthenticateOnEviction) {
+        this(transport, baseUrl, maxTenants, idleTimeoutMillis, deauthenticateOnEviction, null);
+    }
+
+    /**
+     * Creates a registry whose contexts persist their tokens.
+     *
+     * @param transport                Transport shared by every context in the registry.
+     * @param baseUrl                  Base URL for the API.
+     * @param maxTenants               Maximum number of contexts kept at once.
+     * @param idleTimeoutMillis        Time after which an unused context is evicted.
+     * @param deauthenticateOnEviction Whether evicted contexts are deauthenticated.
+     * @param tokenStore               Store persisting tokens across restarts, or null.
+     */
+    public TenantRegistry(HttpTransport transport, String baseUrl, int maxTenants, long idleTimeoutMillis,
+                          boolean deauthenticateOnEviction, TokenStore tokenStore) {
+        this(transport, baseUrl, maxTenants, idleTimeoutMillis, deauthenticateOnEviction, tokenStore, null);
+    }
+
+    /**
+     * Creates a registry whose contexts persist their tokens and coordinate refreshes with other processes.
+     *
+     * @param transport                Transport shared by every context in the registry.
+     * @param baseUrl                  Base URL for the API.
+     * @param maxTenants               Maximum number of contexts kept at once.
+     * @param idleTimeoutMillis        Time after which an unused context is evicted.
+     * @param deauthenticateOnEviction Whether evicted contexts are deauthenticated.
+     * @param tokenStore               Store persisting tokens across restarts, or null.
+     * @param tokenLease               Lease coordinating refreshes with other processes, or null.
+     */
+    public TenantRegistry(HttpTransport transport, String baseUrl, int maxTenants, long idleTimeoutMillis,
+                          boolean deauthenticateOnEviction, TokenStore tokenStore, TokenLease tokenLease) {
+        if (maxTenants < 1) {
+            throw new IllegalArgumentException("maxTenants must be at least 1");
+        }
+        this.transport = transport;
+        this.baseUrl = baseUrl;
+        this.maxTenants = maxTenants;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.deauthenticateOnEviction = deauthenticateOnEviction;
+        this.tokenStore = tokenStore;
+        this.tokenLease = tokenLease;
+    }
+
+    /**
+     * Returns the authentication context for a tenant, creating and authenticating it on first use.
+     * Concurrent callers for the same tenant share one context; only the first one authenticates.
+     *
+     * @param printerEmail Email associated with the printer.
+     * @param clientId     Client ID for API authentication.
+     * @param clientSecret Client secret for API authentication.
+     * @return The tenant's authentication context.
+     */
+    public AuthCtx get(String printerEmail, String clientId, String clientSecret) {
+        String key = key(printerEmail, clientId);
+        while (true) {
+            long now = System.currentTimeMillis();
+            Tenant tenant;
+            List<Tenant> evicted = new ArrayList<>();
+            synchronized (this.tenants) {
+                tenant = this.tenants.get(key);
+                if (tenant == null) {
+                    tenant = new Tenant(printerEmail, clientId, clientSecret);
+                    this.tenants.put(key, tenant);
+                }
+                tenant.lastAccess = now;
+                collectEvictions(now, evicted);
+            }
+            // Authentication and eviction callbacks run outside the registry lock
+            dispose(evicted);
+            // Null if the tenant was evicted in the meantime, in which case it is registered again
+            AuthCtx authCtx = tenant.authCtx();
+            if (authCtx != null) {
+                return authCtx;
+            }
+        }
+    }
+
+    /**
+     * Returns a Client for a tenant backed by the registry's shared context.
+     *
+     * @param printerEmail Email associated with the printer.
+     * @param clientId     Client ID for API authentication.
+     * @param clientSecret Client secret for API authentication.
+     * @return A Client for the tenant.
+     */
+    public Client getClient(String printerEmail, String clientId, String clientSecret) {
+        return new Client(get(printerEmail, clientId, clientSecret));
+    }
+
+    /**
+     * Removes a tenant from the registry.
+     *
+     * @param printerEmail Email associated with the printer.
+     * @param clientId     Client ID for API authentication.
+     * @return True if the tenant was present.
+     */
+    public boolean evict(String printerEmail, String clientId) {
+        Tenant tenant;
+        synchronized (this.tenants) {
+            tenant = this.tenants.remove(key(printerEmail, clientId));
+        }
+        if (tenant == null) {
+            return false;
+        }
+        dispose(Collections.singletonList(tenant));
+        return true;
+    }
+
+    /**
+     * Evicts all tenants that have been idle for longer than the idle timeout.
+     *
+     * @return The number of evicted tenants.
+     */
+    public int evictIdle() {
+        List<Tenant> evicted = new ArrayList<>();
+        synchronized (this.tenants) {
+            collectEvictions(System.currentTimeMillis(), evicted);
+        }
+        dispose(evicted);
+        return evicted.size();
+    }
+
+    /**
+     * Evicts every tenant.
+     */
+    public void clear() {
+        List<Tenant> evicted;
+        synchronized (this.tenants) {
+            evicted = new ArrayList<>(this.tenants.values());
+            this.tenants.clear();
+        }
+        dispose(evicted);
+    }
+
+    /**
+     * Returns the number of tenants currently held.
+     *
+     * @return The number of tenants.
+     */
+    public int size() {
+        synchronized (this.tenants) {
+            return this.tenants.size();
+        }
+    }
+
+    /**
+     * Removes tenants over the size bound and idle tenants. Callers must hold the registry lock.
+     * Since the map is in access order, idle tenants are always at its head.
+     */
+    private void collectEvictions(long now, List<Tenant> evicted) {
+        Iterator<Tenant> iterator = this.tenants.values().iterator();
+        while (iterator.hasNext()) {
+            Tenant eldest = iterator.next();
+            boolean overCapacity = this.tenants.size() > this.maxTenants;
+            boolean idle = now - eldest.lastAccess > this.idleTimeoutMillis;
+            if (!overCapacity && !idle) {
+                break;
+            }
+            iterator.remove();
+            evicted.add(eldest);
+        }
+    }
+
+    private void dispose(List<Tenant> evicted) {
+        for (Tenant tenant : evicted) {
+            AuthCtx authCtx = tenant.evict();
+            if (authCtx == null) {
+                continue;
+            }
+            authCtx.close();
+            if (this.deauthenticateOnEviction) {
+                try {
+                    authCtx.deauthenticate();
+                } catch (IOException e) {
+                    logger.warning("Failed to deauthenticate evicted tenant " + tenant.printerEmail + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String key(String printerEmail, String clientId) {
+        return clientId + '\n' + printerEmail;
+    }
+
+    /**
+     * A registry entry whose context is created on first access.
+     */
+    private final class Tenant {
+        private final String printerEmail;
+        private final String clientId;
+        private final String clientSecret;
+        // Last time the tenant was handed out, guarded by the registry lock
+        private long lastAccess;
+        private AuthCtx authCtx;
+        private boolean evicted;
+
+        private Tenant(String printerEmail, String clientId, String clientSecret) {
+            this.printerEmail = printerEmail;
+            this.clientId = clientId;
+            this.clientSecret = clientSecret;
+        }
+
+        /**
+         * Returns the context, creating it on first access, or null once the tenant has been evicted.
+         */
+        private synchronized AuthCtx authCtx() {
+            if (this.evicted) {
+                return null;
+            }
+            if (this.authCtx == null) {
+                this.authCtx = new AuthCtx(transport, baseUrl, this.printerEmail, this.clientId, this.clientSecret,
+                        tokenStore, tokenLease);
+            }
+            return this.authCtx;
+        }
+
+        /**
+         * Marks the tenant as evicted so no context is created for it anymore.
+         *
+         * @return The context to dispose, or null if none was created.
+         */
+        private synchronized AuthCtx evict() {
+            this.evicted = true;
+            return this.authCtx;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.epsonconnectjava;
+
+import java.io.IOException;
+
+/**
+ * Coordinates token refreshes between processes that share a {@link TokenStore}.
+ * <p>
+ * Before refreshing a tenant's token, {@link AuthCtx} acquires the tenant's lease and re-reads the store.
+ * If another process refreshed the token in the meantime it adopts that token instead of requesting a new one,
+ * so only one process calls the token endpoint per tenant at a time.
+ */
+public interface TokenLease {
+
+    /**
+     * Acquires the lease for a tenant, blocking until it is available.
+     *
+     * @param tenantKey The tenant's key.
+     * @return The held lease, released by closing it.
+     * @throws IOException If the lease cannot be acquired.
+     */
+    Lease acquire(String tenantKey) throws IOException;
+
+    /**
+     * A held lease.
+     */
+    interface Lease extends AutoCloseable {
+
+        /**
+         * Releases the lease.
+         *
+         * @throws IOException If the lease cannot be released cleanly.
+         */
+        @Override
+        void close() throws IOException;
+    }
+}
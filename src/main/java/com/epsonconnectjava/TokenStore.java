@@ -0,0 +1,78 @@
+package com.epsonconnectjava;
+
+import java.io.IOException;
+
+/**
+ * Persists authentication tokens so that a restarted process can reuse them instead of
+ * authenticating again. Tokens are stored per tenant, identified by a key derived from the
+ * client ID and printer email.
+ */
+public interface TokenStore {
+
+    /**
+     * Loads the token stored for a tenant.
+     *
+     * @param tenantKey The tenant's key.
+     * @return The stored token, or null if there is none.
+     * @throws IOException If the store cannot be read.
+     */
+    Token load(String tenantKey) throws IOException;
+
+    /**
+     * Stores the token for a tenant, replacing any previous one.
+     *
+     * @param tenantKey The tenant's key.
+     * @param token     The token to store.
+     * @throws IOException If the store cannot be written.
+     */
+    void save(String tenantKey, Token token) throws IOException;
+
+    /**
+     * Removes the token stored for a tenant.
+     *
+     * @param tenantKey The tenant's key.
+     * @throws IOException If the store cannot be written.
+     */
+    void remove(String tenantKey) throws IOException;
+
+    /**
+     * An immutable snapshot of a tenant's token state.
+     */
+    final class Token {
+        private final String accessToken;
+        private final String refreshToken;
+        private final long expiresAt;
+        private final String subjectId;
+
+        /**
+         * Creates a token snapshot.
+         *
+         * @param accessToken  Access token for API authentication.
+         * @param refreshToken Refresh token for renewing the access token.
+         * @param expiresAt    Expiry of the access token, in epoch milliseconds.
+         * @param subjectId    Subject ID (typically representing the device ID).
+         */
+        public Token(String accessToken, String refreshToken, long expiresAt, String subjectId) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.expiresAt = expiresAt;
+            this.subjectId = subjectId;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public String getSubjectId() {
+            return subjectId;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.epsonconnectjava;
+
+import com.epsonconnectjava.http.FileChannelRequestBody;
+import com.epsonconnectjava.http.HttpStatusException;
+import okhttp3.MediaType;
+import okhttp3.Request;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Uploads files from a {@link FileChannel} with progress reporting and retries.
+ * <p>
+ * In resumable mode the file is sent as a series of POST requests of at most {@code chunkSize} bytes, each
+ * carrying a {@code Content-Range} header. A chunk counts as acknowledged once the server answers it with a
+ * 2xx status, and a failed chunk is retried from the last acknowledged offset, so a dropped connection only
+ * costs the chunk in flight. Endpoints that only accept the whole file in one request should use the
+ * non-resumable mode, where the file is still streamed from the channel with progress reports but a failed
+ * attempt starts over from the beginning.
+ * <p>
+ * Only failures that may succeed on a later attempt are retried: I/O errors and the HTTP statuses
+ * {@link HttpStatusException#isTransient()} accepts. Any other error status fails the upload at once.
+ */
+public class UploadEngine {
+
+    private static final Logger logger = Logger.getLogger(UploadEngine.class.getName());
+    private static final MediaType OCTET_STREAM = RequestTemplate.OCTET_STREAM;
+    // Bytes transferred between progress reports
+    private static final int SLICE_SIZE = 64 * 1024;
+
+    /** Default chunk size for resumable uploads. */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final int chunkSize;
+    private final int maxRetries;
+    private final long retryDelayMillis;
+    private final boolean resumable;
+    private final UploadListener listener;
+
+    /**
+     * Creates an engine sending the whole file in one request, retrying failed attempts from the start.
+     *
+     * @param maxRetries Number of times a failed attempt is retried.
+     * @param listener   Receives progress reports, or null.
+     */
+    public UploadEngine(int maxRetries, UploadListener listener) {
+        this(DEFAULT_CHUNK_SIZE, maxRetries, 500, false, listener);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param chunkSize        Maximum size of one request in resumable mode.
+     * @param maxRetries       Number of times a failed request is retried before the upload fails.
+     * @param retryDelayMillis Delay before the first retry; later retries wait proportionally longer.
+     * @param resumable        Whether the endpoint accepts the file in ranged chunks.
+     * @param listener         Receives progress reports, or null.
+     */
+    public UploadEngine(int chunkSize, int maxRetries, long retryDelayMillis, boolean resumable, UploadListener listener) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        this.chunkSize = chunkSize;
+        this.maxRetries = maxRetries;
+        this.retryDelayMillis = retryDelayMillis;
+        this.resumable = resumable;
+        this.listener = listener;
+    }
+
+    /**
+     * Uploads a file.
+     *
+     * @param authCtx The authentication context used to send the requests.
+     * @param url     The URL to upload to.
+     * @param file    The file to upload.
+     * @throws IOException If the file cannot be read or the upload still fails after all retries.
+     */
+    public void upload(AuthCtx authCtx, String url, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long total = channel.size();
+            long startNanos = System.nanoTime();
+            long acknowledged = 0;
+            int failures = 0;
+            do {
+                long offset = acknowledged;
+                long length = this.resumable ? Math.min(this.chunkSize, total - offset) : total;
+                FileChannelRequestBody body = new FileChannelRequestBody(OCTET_STREAM, channel, offset, length, SLICE_SIZE,
+                        written -> report(offset + written, total, startNanos));
+                Request.Builder requestBuilder = new Request.Builder()
+                        .url(url)
+                        .header("Content-Type", "application/octet-stream")
+                        .header("Authorization", RequestTemplate.authorization(authCtx))
+                        .post(body);
+                // An empty file has no byte range to describe
+                if (this.resumable && total > 0) {
+                    requestBuilder.header("Content-Range", "bytes " + offset + "-" + (offset + length - 1) + "/" + total);
+                }
+                try {
+                    authCtx.send(requestBuilder);
+                    acknowledged = offset + length;
+                    failures = 0;
+                } catch (IOException e) {
+                    // A rejected request, such as an expired token or an oversized file, fails the same way again
+                    boolean rejected = e instanceof HttpStatusException && !((HttpStatusException) e).isTransient();
+                    if (rejected || ++failures > this.maxRetries) {
+                        throw e;
+                    }
+                    logger.warning("Upload failed at offset " + offset + ", retrying: " + e.getMessage());
+                    report(acknowledged, total, startNanos);
+                    sleep(this.retryDelayMillis * failures);
+                }
+            } while (acknowledged < total);
+        }
+    }
+
+    private void report(long sent, long total, long startNanos) {
+        if (this.listener == null) {
+            return;
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        this.listener.onProgress(sent, total, seconds > 0 ? sent / seconds : 0);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry upload");
+        }
+    }
+}
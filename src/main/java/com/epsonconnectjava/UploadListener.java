@@ -0,0 +1,18 @@
+package com.epsonconnectjava;
+
+/**
+ * Receives progress reports from an {@link UploadEngine}.
+ */
+@FunctionalInterface
+public interface UploadListener {
+
+    /**
+     * Called as the upload progresses. After a failed attempt the reported byte count may go back to the
+     * offset the upload resumes from.
+     *
+     * @param bytesSent      Number of bytes of the file sent so far.
+     * @param totalBytes     Size of the file.
+     * @param bytesPerSecond Average throughput of the upload so far.
+     */
+    void onProgress(long bytesSent, long totalBytes, double bytesPerSecond);
+}
@@ -0,0 +1,166 @@
+package com.epsonconnectjava.http;
+
+import com.epsonconnectjava.metrics.MetricsRecorder;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * An OkHttp {@link EventListener.Factory} measuring the phases of calls, see {@link CallTimings}.
+ * <p>
+ * A share of the calls given by the sample rate is timed and reported to the metrics recorder; the others
+ * get OkHttp's no-op listener and cost nothing. Calls whose request is tagged with {@link CallTimings} are
+ * always timed, and their timings are also written to the tag.
+ */
+public class CallTimingListenerFactory implements EventListener.Factory {
+
+    private final double sampleRate;
+    private final Supplier<MetricsRecorder> metricsRecorder;
+
+    /**
+     * Creates a factory.
+     *
+     * @param sampleRate      Share of untagged calls to time, between 0 and 1.
+     * @param metricsRecorder Supplies the recorder the timings are reported to.
+     */
+    public CallTimingListenerFactory(double sampleRate, Supplier<MetricsRecorder> metricsRecorder) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        CallTimings timings = call.request().tag(CallTimings.class);
+        if (timings == null) {
+            if (this.sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= this.sampleRate) {
+                return EventListener.NONE;
+            }
+            timings = new CallTimings();
+        }
+        return new TimingListener(timings, this.metricsRecorder);
+    }
+
+    /**
+     * Records the phases of one call. OkHttp delivers the events of a call one after another.
+     */
+    private static final class TimingListener extends EventListener {
+        private final CallTimings timings;
+        private final Supplier<MetricsRecorder> metricsRecorder;
+
+        private TimingListener(CallTimings timings, Supplier<MetricsRecorder> metricsRecorder) {
+            this.timings = timings;
+            this.metricsRecorder = metricsRecorder;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            this.timings.start(CallTimings.Phase.TOTAL);
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            this.timings.start(CallTimings.Phase.DNS);
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            this.timings.end(CallTimings.Phase.DNS);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            this.timings.start(CallTimings.Phase.CONNECT);
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            this.timings.start(CallTimings.Phase.TLS);
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            this.timings.end(CallTimings.Phase.TLS);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            this.timings.end(CallTimings.Phase.CONNECT);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                                  IOException ioe) {
+            this.timings.end(CallTimings.Phase.CONNECT);
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            this.timings.start(CallTimings.Phase.REQUEST_HEADERS);
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            this.timings.end(CallTimings.Phase.REQUEST_HEADERS);
+            this.timings.start(CallTimings.Phase.TIME_TO_FIRST_BYTE);
+        }
+
+        @Override
+        public void requestBodyStart(Call call) {
+            this.timings.start(CallTimings.Phase.REQUEST_BODY);
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            this.timings.end(CallTimings.Phase.REQUEST_BODY);
+            // The server answers once the body is written
+            this.timings.start(CallTimings.Phase.TIME_TO_FIRST_BYTE);
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            this.timings.end(CallTimings.Phase.TIME_TO_FIRST_BYTE);
+        }
+
+        @Override
+        public void responseBodyStart(Call call) {
+            this.timings.start(CallTimings.Phase.RESPONSE_BODY);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            this.timings.end(CallTimings.Phase.RESPONSE_BODY);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            finish(call);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            finish(call);
+        }
+
+        private void finish(Call call) {
+            this.timings.end(CallTimings.Phase.TOTAL);
+            this.timings.finish();
+            MetricsRecorder recorder = this.metricsRecorder.get();
+            if (recorder != null && recorder != MetricsRecorder.noop()) {
+                recorder.recordCallTimings(Endpoint.of(call.request()), this.timings);
+            }
+        }
+    }
+}
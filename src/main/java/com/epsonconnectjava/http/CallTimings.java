@@ -0,0 +1,102 @@
+package com.epsonconnectjava.http;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * How long the phases of one HTTP call took.
+ * <p>
+ * To get the timings of a particular call, tag its request with an instance before sending it, with
+ * {@code requestBuilder.tag(CallTimings.class, timings)}. Once the call has finished, the instance holds its
+ * timings, provided the client sends with a {@link CallTimingListenerFactory}, which
+ * {@link RealHttpClient#setCallTimingSampleRate(double)} installs. Phases that repeat, such as a connect
+ * after a failed attempt, are added up.
+ */
+public final class CallTimings {
+
+    /**
+     * The phases of a call.
+     */
+    public enum Phase {
+        /** Resolving the host name. */
+        DNS,
+        /** Opening the connection, including the TLS handshake. */
+        CONNECT,
+        /** The TLS handshake. */
+        TLS,
+        /** Writing the request headers. */
+        REQUEST_HEADERS,
+        /** Writing the request body, such as an uploaded document. */
+        REQUEST_BODY,
+        /** From the end of the request to the first byte of the response, mostly server time. */
+        TIME_TO_FIRST_BYTE,
+        /** Reading the response body. */
+        RESPONSE_BODY,
+        /** The whole call. */
+        TOTAL
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[] starts = new long[PHASES.length];
+    private final long[] durations = new long[PHASES.length];
+    private boolean connectionReused = true;
+    private volatile boolean finished;
+
+    public CallTimings() {
+        Arrays.fill(this.durations, -1);
+    }
+
+    void start(Phase phase) {
+        this.starts[phase.ordinal()] = System.nanoTime();
+    }
+
+    void end(Phase phase) {
+        int index = phase.ordinal();
+        long elapsed = System.nanoTime() - this.starts[index];
+        this.durations[index] = this.durations[index] < 0 ? elapsed : this.durations[index] + elapsed;
+        if (phase == Phase.CONNECT) {
+            this.connectionReused = false;
+        }
+    }
+
+    void finish() {
+        // Publishes the phases written before it to threads that check isFinished()
+        this.finished = true;
+    }
+
+    /**
+     * @return Whether the call has completed or failed, so that the timings are final.
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    /**
+     * @param phase The phase.
+     * @return The time the phase took in nanoseconds, or -1 if the call did not go through it.
+     */
+    public long getNanos(Phase phase) {
+        return this.finished ? this.durations[phase.ordinal()] : -1;
+    }
+
+    /**
+     * @return Whether the call used a pooled connection instead of opening one.
+     */
+    public boolean isConnectionReused() {
+        return this.finished && this.connectionReused;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("CallTimings{");
+        for (Phase phase : PHASES) {
+            long nanos = getNanos(phase);
+            if (nanos >= 0) {
+                out.append(phase.name().toLowerCase(Locale.ROOT)).append('=')
+                        .append(nanos / 1000).append("us, ");
+            }
+        }
+        return out.append("connectionReused=").append(isConnectionReused()).append('}').toString();
+    }
+}
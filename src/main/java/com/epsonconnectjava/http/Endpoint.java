@@ -0,0 +1,76 @@
+package com.epsonconnectjava.http;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+import java.util.List;
+
+/**
+ * The Epson Connect API operations, used to keep per-operation state such as circuit breakers and rate limits.
+ */
+public enum Endpoint {
+    /** Token grant and refresh. */
+    TOKEN,
+    /** Printer information. */
+    PRINTER_INFO,
+    /** Print job creation. */
+    JOB_CREATE,
+    /** Upload of the document to print. */
+    UPLOAD,
+    /** Start of a print job. */
+    EXECUTE,
+    /** Print job information. */
+    JOB_INFO,
+    /** Listing and editing scan destinations. */
+    SCAN_DESTINATIONS,
+    /** Removal of the printer's authentication. */
+    DEAUTHENTICATE,
+    /** Anything not recognized. */
+    OTHER;
+
+    private static final String PRINTING = "/api/1/printing/";
+    private static final String SCANNING = "/api/1/scanning/";
+
+    /**
+     * Determines the operation a request performs from its method and URL.
+     *
+     * @param request The request to classify.
+     * @return The endpoint, {@link #OTHER} if the request is not recognized.
+     */
+    public static Endpoint of(Request request) {
+        HttpUrl url = request.url();
+        if (url.queryParameter("File") != null) {
+            return UPLOAD;
+        }
+        String path = url.encodedPath();
+        String method = request.method();
+        if (path.startsWith(PRINTING + "oauth2/")) {
+            return TOKEN;
+        }
+        if (path.startsWith(SCANNING)) {
+            return path.endsWith("/destinations") || path.contains("/destinations/") ? SCAN_DESTINATIONS : OTHER;
+        }
+        if (!path.startsWith(PRINTING + "printers/")) {
+            return OTHER;
+        }
+        // printers/{device}[/jobs[/{job}[/print]]]
+        List<String> segments = url.pathSegments();
+        int depth = segments.size() - 5;
+        if (depth == 0) {
+            return "DELETE".equals(method) ? DEAUTHENTICATE : PRINTER_INFO;
+        }
+        if (!"jobs".equals(segments.get(5))) {
+            return OTHER;
+        }
+        switch (depth) {
+            case 1:
+                return JOB_CREATE;
+            case 2:
+                return JOB_INFO;
+            case 3:
+                return "print".equals(segments.get(7)) ? EXECUTE : OTHER;
+            default:
+                return OTHER;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.epsonconnectjava.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.function.LongConsumer;
+
+/**
+ * A request body streaming a region of a file straight from its {@link FileChannel}.
+ * <p>
+ * The region is transferred in slices of {@code sliceSize} bytes and the number of bytes written so far is
+ * reported after each slice, which lets callers track upload progress. The body can be written more than
+ * once, so OkHttp may retry it. The channel is not closed by the body.
+ */
+public class FileChannelRequestBody extends RequestBody {
+
+    private final MediaType contentType;
+    private final FileChannel channel;
+    private final long position;
+    private final long length;
+    private final int sliceSize;
+    private final LongConsumer progress;
+
+    /**
+     * Creates a body for a region of a file.
+     *
+     * @param contentType The content type of the body, or null.
+     * @param channel     The channel to read from.
+     * @param position    The offset of the region in the file.
+     * @param length      The length of the region.
+     * @param sliceSize   The number of bytes transferred between progress reports.
+     * @param progress    Receives the number of bytes of this body written so far, or null.
+     */
+    public FileChannelRequestBody(MediaType contentType, FileChannel channel, long position, long length,
+                                  int sliceSize, LongConsumer progress) {
+        this.contentType = contentType;
+        this.channel = channel;
+        this.position = position;
+        this.length = length;
+        this.sliceSize = sliceSize;
+        this.progress = progress;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return this.contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return this.length;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        long written = 0;
+        while (written < this.length) {
+            long count = Math.min(this.sliceSize, this.length - written);
+            long transferred = this.channel.transferTo(this.position + written, count, sink);
+            if (transferred <= 0) {
+                throw new IOException("File ended " + (this.length - written) + " bytes before the expected length");
+            }
+            written += transferred;
+            if (this.progress != null) {
+                sink.flush();
+                this.progress.accept(written);
+            }
+        }
+    }
+}
@@ -1,10 +1,51 @@
 package com.epsonconnectjava.http;
 
+import com.epsonconnectjava.metrics.MetricsRecorder;
 import okhttp3.Request;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Transport abstraction used by {@link com.epsonconnectjava.AuthCtx} to talk to the Epson Connect API.
+ */
 public interface HttpClient {
+
+    /**
+     * Sends an HTTP request and blocks until the response has been parsed.
+     *
+     * @param requestBuilder Request builder containing the details of the HTTP request.
+     * @return JSONObject containing the response from the server, or null for an empty body.
+     * @throws IOException If the request fails or the server responds with a non-2xx status.
+     */
     JSONObject send(Request.Builder requestBuilder) throws IOException;
+
+    /**
+     * Sends an HTTP request without blocking the calling thread.
+     * <p>
+     * The default implementation runs {@link #send(Request.Builder)} on the calling thread and
+     * returns an already completed future. Implementations backed by a real transport should override it.
+     *
+     * @param requestBuilder Request builder containing the details of the HTTP request.
+     * @return A future completed with the parsed response, or exceptionally with the failure.
+     */
+    default CompletableFuture<JSONObject> sendAsync(Request.Builder requestBuilder) {
+        CompletableFuture<JSONObject> future = new CompletableFuture<>();
+        try {
+            future.complete(send(requestBuilder));
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Sets the recorder receiving the latency and outcome of every request. Decorators forward it to the
+     * client they wrap. The default implementation records nothing.
+     *
+     * @param metricsRecorder The recorder, or null to stop recording.
+     */
+    default void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+    }
 }
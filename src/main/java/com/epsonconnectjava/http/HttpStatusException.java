@@ -0,0 +1,82 @@
+package com.epsonconnectjava.http;
+
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Thrown when the server answers a request with a non-2xx status.
+ */
+public class HttpStatusException extends IOException {
+
+    private final int code;
+    private final long retryAfterMillis;
+
+    /**
+     * Creates an exception for a response.
+     *
+     * @param response The unsuccessful response.
+     */
+    public HttpStatusException(Response response) {
+        this("Unexpected code " + response, response.code(), parseRetryAfter(response));
+    }
+
+    /**
+     * Creates an exception.
+     *
+     * @param message          The detail message.
+     * @param code             The HTTP status code.
+     * @param retryAfterMillis The delay requested by the server's Retry-After header, or -1 if there was none.
+     */
+    public HttpStatusException(String message, int code, long retryAfterMillis) {
+        super(message);
+        this.code = code;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return The HTTP status code.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return The delay requested by the server's Retry-After header in milliseconds, or -1 if there was none.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * @return Whether the status may succeed on a later attempt, such as a timeout, throttling or a server error.
+     */
+    public boolean isTransient() {
+        return isTransient(code);
+    }
+
+    /**
+     * @param code An HTTP status code.
+     * @return Whether the status may succeed on a later attempt.
+     */
+    public static boolean isTransient(int code) {
+        return code == 408 || code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Parses a Retry-After header given either as a number of seconds or as an HTTP date.
+     */
+    private static long parseRetryAfter(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate("Retry-After");
+            return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.epsonconnectjava.http;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpTransport owns the connection pool, dispatcher and TLS session cache used to reach the API.
+ * <p>
+ * A single transport is meant to be shared by every {@link RealHttpClient} in the JVM so that all
+ * tenants reuse warm connections to the same host instead of each opening their own pool.
+ * {@link #getDefault()} returns the process-wide instance used when no transport is given.
+ */
+public class HttpTransport {
+
+    /** Default number of idle connections kept in the pool. */
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 32;
+    /** Default time an idle connection is kept alive, in milliseconds. */
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    /** Default maximum number of concurrent asynchronous requests. */
+    public static final int DEFAULT_MAX_REQUESTS = 256;
+    /** Default maximum number of concurrent asynchronous requests to a single host. */
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 128;
+
+    private static volatile HttpTransport defaultTransport;
+
+    // OkHttp client whose pool and dispatcher are shared by all users of this transport
+    private final OkHttpClient client;
+
+    /**
+     * Creates a transport with the default pool and dispatcher limits and HTTP/2 enabled.
+     */
+    public HttpTransport() {
+        this(DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_MILLIS, DEFAULT_MAX_REQUESTS, DEFAULT_MAX_REQUESTS_PER_HOST, true);
+    }
+
+    /**
+     * Creates a transport with the given limits.
+     *
+     * @param maxIdleConnections Maximum number of idle connections kept in the pool.
+     * @param keepAliveMillis    Time an idle connection is kept alive before it is evicted.
+     * @param maxRequests        Maximum number of concurrent asynchronous requests.
+     * @param maxRequestsPerHost Maximum number of concurrent asynchronous requests to a single host.
+     * @param http2              Whether to negotiate HTTP/2 so concurrent calls are multiplexed on one connection.
+     */
+    public HttpTransport(int maxIdleConnections, long keepAliveMillis, int maxRequests, int maxRequestsPerHost, boolean http2) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        this.client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(http2
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .build();
+    }
+
+    /**
+     * Returns the process-wide transport, creating it with default settings on first use.
+     *
+     * @return The shared default transport.
+     */
+    public static HttpTransport getDefault() {
+        HttpTransport transport = defaultTransport;
+        if (transport == null) {
+            synchronized (HttpTransport.class) {
+                transport = defaultTransport;
+                if (transport == null) {
+                    transport = new HttpTransport();
+                    defaultTransport = transport;
+                }
+            }
+        }
+        return transport;
+    }
+
+    /**
+     * Returns the underlying OkHttp client.
+     *
+     * @return The OkHttp client backed by this transport's pool and dispatcher.
+     */
+    public OkHttpClient getOkHttpClient() {
+        return client;
+    }
+
+    /**
+     * Closes idle connections and stops the dispatcher threads.
+     * The transport must not be used afterwards. The {@link #getDefault() default} transport is shared by every
+     * client in the process and cannot be shut down.
+     *
+     * @throws IllegalStateException If this is the default transport.
+     */
+    public void shutdown() {
+        if (this == defaultTransport) {
+            throw new IllegalStateException("The default transport is shared by all clients and cannot be shut down");
+        }
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
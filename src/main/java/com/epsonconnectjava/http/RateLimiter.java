@@ -0,0 +1,140 @@
+package com.epsonconnectjava.http;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket implemented with the generic cell rate algorithm.
+ * <p>
+ * The whole state is a single theoretical arrival time updated by compare-and-set, so acquiring a permit
+ * never blocks other threads. The bucket refills at {@code permitsPerSecond} and holds at most {@code burst}
+ * permits. Instances are thread safe and meant to be shared by every client that draws on the same quota.
+ */
+public class RateLimiter {
+
+    // Time between two permits
+    private final long intervalNanos;
+    // How far the theoretical arrival time may run ahead of now
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Creates a limiter with a full bucket.
+     *
+     * @param permitsPerSecond The sustained rate.
+     * @param burst            The number of permits that may be taken at once.
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+        }
+        this.intervalNanos = Math.max(1, (long) (1e9 / permitsPerSecond));
+        this.toleranceNanos = this.intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - this.intervalNanos);
+    }
+
+    /**
+     * Takes a permit if one is available now.
+     *
+     * @return Whether a permit was taken.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = this.theoreticalArrival.get();
+            long next = Math.max(arrival, now) + this.intervalNanos;
+            if (next - now > this.toleranceNanos + this.intervalNanos) {
+                return false;
+            }
+            if (this.theoreticalArrival.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves the next permit, whether or not it is available now.
+     *
+     * @return The number of nanoseconds the caller has to wait before using the permit, 0 if it may proceed now.
+     */
+    public long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = this.theoreticalArrival.get();
+            long next = Math.max(arrival, now) + this.intervalNanos;
+            if (this.theoreticalArrival.compareAndSet(arrival, next)) {
+                return Math.max(0, next - this.intervalNanos - this.toleranceNanos - now);
+            }
+        }
+    }
+
+    /**
+     * Returns a permit taken by {@link #tryAcquire()} or {@link #reserve()} that ended up unused.
+     */
+    public void release() {
+        this.theoreticalArrival.addAndGet(-this.intervalNanos);
+    }
+
+    /**
+     * Returns whether the bucket has been full for longer than it takes to refill, so the limiter behaves
+     * like a new one.
+     */
+    boolean isIdle(long now) {
+        return now - this.theoreticalArrival.get() > this.toleranceNanos + this.intervalNanos;
+    }
+
+    /**
+     * A set of limiters with the same configuration, one per key, created on first use.
+     * <p>
+     * Limiters that have been idle for longer than their refill window are evicted while other keys are looked
+     * up, so keys that are no longer used do not accumulate. An evicted limiter held by a request in flight may
+     * let that key take one extra burst.
+     */
+    public static class PerKey {
+        // Shortest time between two eviction sweeps
+        private static final long MIN_SWEEP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final double permitsPerSecond;
+        private final int burst;
+        private final long sweepNanos;
+        private final ConcurrentHashMap<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+        private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+        /**
+         * Creates the set.
+         *
+         * @param permitsPerSecond The sustained rate of each key.
+         * @param burst            The number of permits each key may take at once.
+         */
+        public PerKey(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            // The refill window of one limiter
+            long refillNanos = (long) (1e9 / permitsPerSecond * burst);
+            this.sweepNanos = Math.max(MIN_SWEEP_NANOS, refillNanos);
+        }
+
+        /**
+         * Returns the limiter of a key.
+         *
+         * @param key The key.
+         * @return The key's limiter.
+         */
+        public RateLimiter get(String key) {
+            long now = System.nanoTime();
+            long last = this.lastSweep.get();
+            if (now - last > this.sweepNanos && this.lastSweep.compareAndSet(last, now)) {
+                this.limiters.values().removeIf(limiter -> limiter.isIdle(now));
+            }
+            return this.limiters.computeIfAbsent(key, k -> new RateLimiter(this.permitsPerSecond, this.burst));
+        }
+
+        /**
+         * @return The number of keys that currently have a limiter.
+         */
+        public int size() {
+            return this.limiters.size();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.epsonconnectjava.http;
+
+import com.epsonconnectjava.metrics.MetricsRecorder;
+import okhttp3.Request;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link HttpClient} decorator that keeps requests within local rate limits before they reach the API.
+ * <p>
+ * A request has to obtain a permit from up to three {@link RateLimiter}s: a global one, one for the tenant
+ * and one for the device it addresses, which is taken from the {@code printers/{id}} or {@code scanners/{id}}
+ * segment of its path. Share the global limiter between the clients of all tenants, and the tenant and
+ * device limiters between the clients of one tenant. What happens when no permit is available depends on the
+ * {@link Mode}.
+ */
+public class RateLimitingHttpClient implements HttpClient {
+
+    /**
+     * How a request that exceeds a limit is handled.
+     */
+    public enum Mode {
+        /**
+         * Every request waits for a permit: the calling thread of {@link #send(Request.Builder)} sleeps, and
+         * {@link #sendAsync(Request.Builder)} delays the request on a scheduler, since it may be called from a
+         * dispatcher thread.
+         */
+        BLOCK,
+        /**
+         * No thread ever waits for a permit: {@link #sendAsync(Request.Builder)} delays the request on a
+         * scheduler, and {@link #send(Request.Builder)} fails immediately with {@link RateLimitExceededException}.
+         * For callers that must never hold a thread while throttled.
+         */
+        ASYNC_WAIT,
+        /** Every request fails immediately with {@link RateLimitExceededException}. */
+        FAIL_FAST
+    }
+
+    // Shared scheduler starting delayed asynchronous requests
+    private static final ScheduledExecutorService DELAY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "epson-connect-rate-limit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HttpClient delegate;
+    private final Mode mode;
+    private final RateLimiter global;
+    private final RateLimiter tenant;
+    private final RateLimiter.PerKey devices;
+
+    /**
+     * Creates a client.
+     *
+     * @param delegate The client sending the requests.
+     * @param mode     How requests exceeding a limit are handled.
+     * @param global   The limiter shared by all tenants, or null.
+     * @param tenant   The limiter of this client's tenant, or null.
+     * @param devices  The limiters per device ID, or null.
+     */
+    public RateLimitingHttpClient(HttpClient delegate, Mode mode, RateLimiter global, RateLimiter tenant, RateLimiter.PerKey devices) {
+        this.delegate = delegate;
+        this.mode = mode;
+        this.global = global;
+        this.tenant = tenant;
+        this.devices = devices;
+    }
+
+    @Override
+    public JSONObject send(Request.Builder requestBuilder) throws IOException {
+        long waitNanos = acquire(requestBuilder.build(), this.mode != Mode.BLOCK).waitNanos;
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a rate limit permit");
+            }
+        }
+        return this.delegate.send(requestBuilder);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Unless the mode is {@link Mode#FAIL_FAST}, a request waiting for a permit is delayed on a scheduler.
+     * Cancelling the returned future before the request is sent hands its permits back; cancelling it
+     * afterwards cancels the request.
+     */
+    @Override
+    public CompletableFuture<JSONObject> sendAsync(Request.Builder requestBuilder) {
+        Reservation reservation;
+        try {
+            reservation = acquire(requestBuilder.build(), this.mode == Mode.FAIL_FAST);
+        } catch (RateLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (reservation.waitNanos <= 0) {
+            return this.delegate.sendAsync(requestBuilder);
+        }
+        CompletableFuture<JSONObject> future = new CompletableFuture<>();
+        // Set by whichever comes first, the delayed send or the caller's cancellation
+        AtomicBoolean started = new AtomicBoolean();
+        ScheduledFuture<?> delayed = DELAY_SCHEDULER.schedule(() -> {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            CompletableFuture<JSONObject> sent;
+            try {
+                sent = this.delegate.sendAsync(requestBuilder);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<JSONObject> call = sent;
+            future.whenComplete((response, error) -> {
+                if (future.isCancelled()) {
+                    call.cancel(true);
+                }
+            });
+            call.whenComplete((response, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(response);
+                }
+            });
+        }, reservation.waitNanos, TimeUnit.NANOSECONDS);
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled() && started.compareAndSet(false, true)) {
+                delayed.cancel(false);
+                reservation.release();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Forwards the recorder to the wrapped client.
+     */
+    @Override
+    public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        this.delegate.setMetricsRecorder(metricsRecorder);
+    }
+
+    /**
+     * Takes a permit from every applicable limiter.
+     *
+     * @param failFast Whether to fail instead of reserving a permit that is not available yet.
+     * @return The permits taken and the time to wait before sending the request.
+     * @throws RateLimitExceededException If failing fast and a limiter has no permit available.
+     */
+    private Reservation acquire(Request request, boolean failFast) throws RateLimitExceededException {
+        RateLimiter device = null;
+        if (this.devices != null) {
+            String deviceId = deviceId(request);
+            if (deviceId != null) {
+                device = this.devices.get(deviceId);
+            }
+        }
+        if (failFast) {
+            tryAcquire(this.global, this.tenant, device);
+            return new Reservation(this.global, this.tenant, device, 0);
+        }
+        long waitNanos = 0;
+        if (this.global != null) {
+            waitNanos = this.global.reserve();
+        }
+        if (this.tenant != null) {
+            waitNanos = Math.max(waitNanos, this.tenant.reserve());
+        }
+        if (device != null) {
+            waitNanos = Math.max(waitNanos, device.reserve());
+        }
+        return new Reservation(this.global, this.tenant, device, waitNanos);
+    }
+
+    private static void tryAcquire(RateLimiter global, RateLimiter tenant, RateLimiter device)
+            throws RateLimitExceededException {
+        if (global != null && !global.tryAcquire()) {
+            throw new RateLimitExceededException("global");
+        }
+        if (tenant != null && !tenant.tryAcquire()) {
+            // Hand back what was taken so a rejected request does not use up quota
+            release(global);
+            throw new RateLimitExceededException("tenant");
+        }
+        if (device != null && !device.tryAcquire()) {
+            release(global);
+            release(tenant);
+            throw new RateLimitExceededException("device");
+        }
+    }
+
+    private static void release(RateLimiter limiter) {
+        if (limiter != null) {
+            limiter.release();
+        }
+    }
+
+    /**
+     * The permits taken for one request.
+     */
+    private static final class Reservation {
+        private final RateLimiter global;
+        private final RateLimiter tenant;
+        private final RateLimiter device;
+        private final long waitNanos;
+
+        private Reservation(RateLimiter global, RateLimiter tenant, RateLimiter device, long waitNanos) {
+            this.global = global;
+            this.tenant = tenant;
+            this.device = device;
+            this.waitNanos = waitNanos;
+        }
+
+        private void release() {
+            RateLimitingHttpClient.release(this.global);
+            RateLimitingHttpClient.release(this.tenant);
+            RateLimitingHttpClient.release(this.device);
+        }
+    }
+
+    /**
+     * Extracts the device ID from a {@code printers/{id}} or {@code scanners/{id}} path.
+     *
+     * @return The device ID, or null if the request does not address a device.
+     */
+    private static String deviceId(Request request) {
+        List<String> segments = request.url().pathSegments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            String segment = segments.get(i);
+            if (segment.equals("printers") || segment.equals("scanners")) {
+                String deviceId = segments.get(i + 1);
+                return deviceId.isEmpty() ? null : deviceId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Thrown when a request that may not wait exceeds a rate limit.
+     */
+    public static class RateLimitExceededException extends IOException {
+        private final String limit;
+
+        public RateLimitExceededException(String limit) {
+            super("Local " + limit + " rate limit exceeded");
+            this.limit = limit;
+        }
+
+        /**
+         * @return Which limit was exceeded: "global", "tenant" or "device".
+         */
+        public String getLimit() {
+            return limit;
+        }
+    }
+}
@@ -1,11 +1,26 @@
 package com.epsonconnectjava.http;
 
+import com.epsonconnectjava.metrics.MetricsRecorder;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * RealHttpClient class that provides functionality to send HTTP requests.
@@ -13,11 +28,22 @@ import java.io.IOException;
  */
 public class RealHttpClient implements HttpClient {
 
+    /** Default upper bound on the size of a response body, in bytes. */
+    public static final long DEFAULT_MAX_RESPONSE_BYTES = 1024 * 1024;
+
     // Base URL for the API endpoint
     private String baseUrl;
 
-    // HTTP client from OkHttp library
-    private OkHttpClient client;
+    // HTTP client from OkHttp library, backed by a shared transport
+    private volatile OkHttpClient client;
+    // The transport's client, without this client's event listener
+    private final OkHttpClient transportClient;
+
+    // Responses larger than this are rejected while streaming
+    private volatile long maxResponseBytes = DEFAULT_MAX_RESPONSE_BYTES;
+
+    // Receives the latency and outcome of every request
+    private volatile MetricsRecorder metricsRecorder = MetricsRecorder.noop();
 
     /**
      * Constructor for RealHttpClient
@@ -28,8 +54,19 @@ public class RealHttpClient implements HttpClient {
      * @param clientSecret Client secret for authentication (unused in the provided code but retained as a parameter)
      */
     public RealHttpClient(String baseUrl, String printerEmail, String clientId, String clientSecret) {
+        this(HttpTransport.getDefault(), baseUrl);
+    }
+
+    /**
+     * Constructor for RealHttpClient using a specific transport.
+     *
+     * @param transport The transport whose connection pool and dispatcher should be used
+     * @param baseUrl   The base URL for the API
+     */
+    public RealHttpClient(HttpTransport transport, String baseUrl) {
         this.baseUrl = baseUrl;
-        this.client = new OkHttpClient();
+        this.transportClient = transport.getOkHttpClient();
+        this.client = this.transportClient;
     }
 
     /**
@@ -40,32 +77,181 @@ public class RealHttpClient implements HttpClient {
      */
     @Override
     public JSONObject send(Request.Builder requestBuilder) throws IOException {
-        JSONObject responseBody = null;
         Request request = requestBuilder.build();
+        MetricsRecorder metrics = this.metricsRecorder;
+        long startNanos = System.nanoTime();
+        int statusCode = 0;
+        boolean success = false;
         try (Response response = client.newCall(request).execute()) {
+            statusCode = response.code();
+            JSONObject body = handleResponse(response);
+            success = true;
+            return body;
+        } finally {
+            record(metrics, request, startNanos, statusCode, success);
+        }
+    }
+
+    /**
+     * Send an HTTP request asynchronously on OkHttp's dispatcher.
+     * <p>
+     * The calling thread returns immediately; the returned future is completed from a dispatcher
+     * thread. Cancelling the future cancels the underlying call.
+     *
+     * @param requestBuilder Request builder containing the details of the HTTP request.
+     * @return A future completed with the response from the server.
+     */
+    @Override
+    public CompletableFuture<JSONObject> sendAsync(Request.Builder requestBuilder) {
+        CompletableFuture<JSONObject> future = new CompletableFuture<>();
+        Request request = requestBuilder.build();
+        MetricsRecorder metrics = this.metricsRecorder;
+        long startNanos = System.nanoTime();
+        Call call = client.newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                record(metrics, request, startNanos, 0, false);
+                future.completeExceptionally(e);
+            }
 
-            // Check if the response is successful, if not, throw an exception
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected code " + response);
+            @Override
+            public void onResponse(Call call, Response response) {
+                JSONObject body;
+                try (Response r = response) {
+                    body = handleResponse(r);
+                } catch (IOException | RuntimeException e) {
+                    record(metrics, request, startNanos, response.code(), false);
+                    future.completeExceptionally(e);
+                    return;
+                }
+                record(metrics, request, startNanos, response.code(), true);
+                future.complete(body);
             }
-            String responseBodyStr = response.body().string();
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Sets the maximum size of a response body. Larger responses fail with an IOException.
+     *
+     * @param maxResponseBytes The maximum number of body bytes to read.
+     */
+    public void setMaxResponseBytes(long maxResponseBytes) {
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    /**
+     * Sets the recorder receiving the latency and outcome of every request, by {@link Endpoint}.
+     *
+     * @param metricsRecorder The recorder, or null to stop recording.
+     */
+    @Override
+    public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.noop();
+    }
+
+    /**
+     * Times the phases of a share of the calls and reports them to the metrics recorder, see
+     * {@link CallTimings}. Calls whose request is tagged with {@link CallTimings} are timed regardless.
+     * The client keeps sharing its transport's connection pool and dispatcher.
+     *
+     * @param sampleRate Share of the calls to time, between 0 and 1. With 0, only tagged calls are timed.
+     */
+    public void setCallTimingSampleRate(double sampleRate) {
+        this.client = this.transportClient.newBuilder()
+                .eventListenerFactory(new CallTimingListenerFactory(sampleRate, () -> this.metricsRecorder))
+                .build();
+    }
+
+    private static void record(MetricsRecorder metrics, Request request, long startNanos, int statusCode, boolean success) {
+        // Classifying the request costs more than recording, so skip both when nobody listens
+        if (metrics != MetricsRecorder.noop()) {
+            metrics.recordRequest(Endpoint.of(request), System.nanoTime() - startNanos, statusCode, success);
+        }
+    }
+
+    /**
+     * Checks the status of a response and parses its body.
+     * <p>
+     * The body is decoded straight from the network source into the JSON tokenizer, so it is never
+     * materialized as an intermediate String.
+     *
+     * @param response The response to process. The caller is responsible for closing it.
+     * @return JSONObject containing the response body, or null if the body is empty.
+     * @throws IOException If the response is not successful ({@link HttpStatusException}), too large, or the body
+     *                     cannot be read.
+     */
+    private JSONObject handleResponse(Response response) throws IOException {
+        // Check if the response is successful, if not, throw an exception
+        if (!response.isSuccessful()) {
+            throw new HttpStatusException(response);
+        }
+        ResponseBody body = response.body();
+        long limit = this.maxResponseBytes;
+        if (body.contentLength() > limit) {
+            throw new IOException("Response body of " + body.contentLength() + " bytes exceeds limit of " + limit);
+        }
+
+        MediaType contentType = body.contentType();
+        Charset charset = contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+        JSONTokener tokener = new JSONTokener(new InputStreamReader(
+                Okio.buffer(limit(body.source(), limit)).inputStream(), charset));
 
-            if (responseBodyStr.trim().isEmpty()) {
+        JSONObject responseBody;
+        try {
+            // An empty or whitespace-only body carries no data
+            if (tokener.nextClean() == 0) {
                 return null;
             }
+            tokener.back();
             // Parse the response body to a JSON object
-            responseBody = new JSONObject(responseBodyStr);
-
-            // If the response contains an error, throw an exception
-            if (responseBody.has("error")) {
-                throw new ApiError(responseBody.getString("error"));
+            responseBody = new JSONObject(tokener);
+        } catch (JSONException e) {
+            // The tokenizer wraps read failures, including the size limit; surface them as IO errors
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
             }
-        } catch (IOException e) {
             throw e;
         }
+
+        // If the response contains an error, throw an exception
+        if (responseBody.has("error")) {
+            throw new ApiError(responseBody.getString("error"));
+        }
         return responseBody;
     }
 
+    /**
+     * Wraps a source so that reading more than the given number of bytes fails.
+     *
+     * @param source   The source to wrap.
+     * @param maxBytes The maximum number of bytes that may be read.
+     * @return A source enforcing the limit.
+     */
+    private static Source limit(Source source, long maxBytes) {
+        return new ForwardingSource(source) {
+            private long total;
+
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new IOException("Response body exceeds limit of " + maxBytes + " bytes");
+                    }
+                }
+                return read;
+            }
+        };
+    }
+
     /**
      * Custom exception class for API errors.
      */
@@ -0,0 +1,292 @@
+package com.epsonconnectjava.http;
+
+import com.epsonconnectjava.metrics.MetricsRecorder;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * An {@link HttpClient} decorator that retries transient failures and stops calling endpoints that keep failing.
+ * <p>
+ * Connection failures and 408, 429, 500, 502, 503 and 504 responses are retried up to {@code maxAttempts}
+ * attempts in total, waiting a random delay of up to {@code baseDelayMillis * 2^(attempt - 1)}, capped at
+ * {@code maxDelayMillis}, between attempts. A Retry-After header sent by the server is honored; if it asks
+ * for more than {@code maxDelayMillis} the failure is returned instead. Only idempotent requests are retried:
+ * GET, HEAD, PUT, DELETE and OPTIONS, token requests and document uploads, plus any request rejected with
+ * 429, which the server did not process. Requests with a one-shot body are never retried.
+ * <p>
+ * Each {@link Endpoint} has its own circuit breaker. After {@code failureThreshold} consecutive transient
+ * failures it opens and requests to that endpoint fail immediately with {@link CircuitOpenException} for
+ * {@code openMillis}. Then a single trial request is let through, which closes the breaker on success and
+ * opens it again on failure.
+ */
+public class RetryingHttpClient implements HttpClient {
+
+    private static final Logger logger = Logger.getLogger(RetryingHttpClient.class.getName());
+    // Shared scheduler delaying asynchronous retries
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "epson-connect-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HttpClient delegate;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Map<Endpoint, CircuitBreaker> breakers = new EnumMap<>(Endpoint.class);
+
+    /**
+     * Creates a client making up to three attempts and opening a breaker after five consecutive failures
+     * for thirty seconds.
+     *
+     * @param delegate The client sending the requests.
+     */
+    public RetryingHttpClient(HttpClient delegate) {
+        this(delegate, 3, 200, 10_000, 5, 30_000);
+    }
+
+    /**
+     * Creates a client.
+     *
+     * @param delegate         The client sending the requests.
+     * @param maxAttempts      Maximum number of attempts per request, including the first one.
+     * @param baseDelayMillis  Upper bound of the delay before the first retry.
+     * @param maxDelayMillis   Upper bound of any delay between attempts.
+     * @param failureThreshold Number of consecutive failures that opens an endpoint's circuit breaker.
+     * @param openMillis       Time an open circuit breaker rejects requests before letting a trial through.
+     */
+    public RetryingHttpClient(HttpClient delegate, int maxAttempts, long baseDelayMillis, long maxDelayMillis,
+                              int failureThreshold, long openMillis) {
+        if (maxAttempts < 1 || failureThreshold < 1) {
+            throw new IllegalArgumentException("maxAttempts and failureThreshold must be at least 1");
+        }
+        this.delegate = delegate;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        for (Endpoint endpoint : Endpoint.values()) {
+            this.breakers.put(endpoint, new CircuitBreaker());
+        }
+    }
+
+    @Override
+    public JSONObject send(Request.Builder requestBuilder) throws IOException {
+        Request request = requestBuilder.build();
+        Endpoint endpoint = Endpoint.of(request);
+        CircuitBreaker breaker = this.breakers.get(endpoint);
+        for (int attempt = 1; ; attempt++) {
+            breaker.acquire(endpoint);
+            try {
+                JSONObject response = this.delegate.send(requestBuilder);
+                breaker.onSuccess();
+                return response;
+            } catch (IOException e) {
+                long delay = retryDelay(request, e, attempt, breaker);
+                if (delay < 0) {
+                    throw e;
+                }
+                logger.warning("Retrying " + endpoint + " request in " + delay + " ms after: " + e.getMessage());
+                sleep(delay);
+            } catch (RuntimeException e) {
+                // API errors are answers, not outages
+                breaker.onSuccess();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<JSONObject> sendAsync(Request.Builder requestBuilder) {
+        Request request = requestBuilder.build();
+        Endpoint endpoint = Endpoint.of(request);
+        CompletableFuture<JSONObject> future = new CompletableFuture<>();
+        attemptAsync(requestBuilder, request, endpoint, this.breakers.get(endpoint), 1, future);
+        return future;
+    }
+
+    /**
+     * Forwards the recorder to the wrapped client.
+     */
+    @Override
+    public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        this.delegate.setMetricsRecorder(metricsRecorder);
+    }
+
+    private void attemptAsync(Request.Builder requestBuilder, Request request, Endpoint endpoint, CircuitBreaker breaker,
+                              int attempt, CompletableFuture<JSONObject> future) {
+        if (future.isDone()) {
+            return;
+        }
+        CompletableFuture<JSONObject> call;
+        try {
+            breaker.acquire(endpoint);
+            call = this.delegate.sendAsync(requestBuilder);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        // Cancelling the caller's future cancels the attempt in flight
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel(false);
+            }
+        });
+        call.whenComplete((response, error) -> {
+            if (error instanceof CompletionException && error.getCause() != null) {
+                error = error.getCause();
+            }
+            if (error == null) {
+                breaker.onSuccess();
+                future.complete(response);
+                return;
+            }
+            if (error instanceof CancellationException) {
+                // A cancelled attempt says nothing about the endpoint
+                breaker.onCancel();
+                future.completeExceptionally(error);
+                return;
+            }
+            if (!(error instanceof IOException)) {
+                breaker.onSuccess();
+                future.completeExceptionally(error);
+                return;
+            }
+            long delay = retryDelay(request, (IOException) error, attempt, breaker);
+            if (delay < 0) {
+                future.completeExceptionally(error);
+                return;
+            }
+            logger.warning("Retrying " + endpoint + " request in " + delay + " ms after: " + error.getMessage());
+            RETRY_SCHEDULER.schedule(() -> attemptAsync(requestBuilder, request, endpoint, breaker, attempt + 1, future),
+                    delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Records a failed attempt and decides whether to retry it.
+     *
+     * @return The delay before the next attempt, or -1 if the failure should be returned.
+     */
+    private long retryDelay(Request request, IOException error, int attempt, CircuitBreaker breaker) {
+        if (error instanceof CircuitOpenException) {
+            return -1;
+        }
+        int code = error instanceof HttpStatusException ? ((HttpStatusException) error).getCode() : -1;
+        if (code != -1 && !HttpStatusException.isTransient(code)) {
+            // The endpoint is healthy, the request is not
+            breaker.onSuccess();
+            return -1;
+        }
+        breaker.onFailure();
+        if (attempt >= this.maxAttempts || !isRetryable(request, code)) {
+            return -1;
+        }
+        long cap = Math.min(this.maxDelayMillis, this.baseDelayMillis << Math.min(attempt - 1, 30));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        long retryAfter = code != -1 ? ((HttpStatusException) error).getRetryAfterMillis() : -1;
+        if (retryAfter > this.maxDelayMillis) {
+            return -1;
+        }
+        return Math.max(delay, retryAfter);
+    }
+
+    private static boolean isRetryable(Request request, int code) {
+        RequestBody body = request.body();
+        if (body != null && body.isOneShot()) {
+            return false;
+        }
+        if (code == 429) {
+            return true;
+        }
+        switch (request.method()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return true;
+            default:
+                // Issuing a token or overwriting an upload twice has the same effect as doing it once
+                Endpoint endpoint = Endpoint.of(request);
+                return endpoint == Endpoint.TOKEN || endpoint == Endpoint.UPLOAD;
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /**
+     * Thrown instead of sending a request while the circuit breaker of its endpoint is open.
+     */
+    public static class CircuitOpenException extends IOException {
+        private final Endpoint endpoint;
+
+        public CircuitOpenException(Endpoint endpoint) {
+            super("Circuit breaker for " + endpoint + " is open");
+            this.endpoint = endpoint;
+        }
+
+        public Endpoint getEndpoint() {
+            return endpoint;
+        }
+    }
+
+    private final class CircuitBreaker {
+        private int consecutiveFailures;
+        // Time until which requests are rejected, 0 while closed
+        private long openUntil;
+        private boolean trialInFlight;
+
+        private synchronized void acquire(Endpoint endpoint) throws CircuitOpenException {
+            if (this.openUntil == 0) {
+                return;
+            }
+            if (System.currentTimeMillis() < this.openUntil || this.trialInFlight) {
+                throw new CircuitOpenException(endpoint);
+            }
+            this.trialInFlight = true;
+        }
+
+        private synchronized void onSuccess() {
+            this.consecutiveFailures = 0;
+            this.openUntil = 0;
+            this.trialInFlight = false;
+        }
+
+        private synchronized void onCancel() {
+            this.trialInFlight = false;
+        }
+
+        private synchronized void onFailure() {
+            this.consecutiveFailures++;
+            if (this.trialInFlight || this.consecutiveFailures >= failureThreshold) {
+                this.openUntil = System.currentTimeMillis() + openMillis;
+                this.trialInFlight = false;
+            }
+        }
+    }
+}
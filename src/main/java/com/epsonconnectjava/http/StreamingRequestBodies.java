@@ -0,0 +1,168 @@
+package com.epsonconnectjava.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Factories for request bodies that stream their content from memory or from an open stream, so that data
+ * which does not live in a file can be uploaded without writing it to one first.
+ * <p>
+ * Lengths may be given as -1 when unknown, in which case the body is sent with chunked transfer encoding.
+ * Bodies reading from a stream or channel can only be written once and do not close their source.
+ */
+public final class StreamingRequestBodies {
+
+    // Size of the buffer used to move data from a channel to the socket
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+
+    private StreamingRequestBodies() {
+    }
+
+    /**
+     * Creates a body streaming from an input stream.
+     *
+     * @param contentType The content type of the body, or null.
+     * @param in          The stream to read from.
+     * @param length      The number of bytes to send, or -1 to send everything up to the end of the stream.
+     * @return The request body.
+     */
+    public static RequestBody create(MediaType contentType, InputStream in, long length) {
+        return new OneShotBody(contentType, length) {
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                Source source = Okio.source(in);
+                if (length < 0) {
+                    sink.writeAll(source);
+                } else {
+                    // Throws EOFException if the stream is shorter than announced
+                    sink.write(source, length);
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a body sending the remaining bytes of a buffer. The buffer's position is not changed, so the
+     * body can be written more than once. Memory-mapped buffers are sent straight from the mapping.
+     *
+     * @param contentType The content type of the body, or null.
+     * @param buffer      The buffer to send.
+     * @return The request body.
+     */
+    public static RequestBody create(MediaType contentType, ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate();
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return data.remaining();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                ByteBuffer view = data.duplicate();
+                while (view.hasRemaining()) {
+                    sink.write(view);
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a body streaming from a channel, starting at the channel's current position. File channels
+     * are transferred with {@link FileChannel#transferTo}.
+     *
+     * @param contentType The content type of the body, or null.
+     * @param channel     The channel to read from.
+     * @param length      The number of bytes to send, or -1 to send everything up to the end of the channel.
+     * @return The request body.
+     */
+    public static RequestBody create(MediaType contentType, ReadableByteChannel channel, long length) {
+        return new OneShotBody(contentType, length) {
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                long written = channel instanceof FileChannel
+                        ? transfer((FileChannel) channel, sink, length)
+                        : copy(channel, sink, length);
+                if (length >= 0 && written < length) {
+                    throw new ProtocolException("Channel ended " + (length - written) + " bytes before the expected length");
+                }
+            }
+        };
+    }
+
+    private static long transfer(FileChannel channel, BufferedSink sink, long length) throws IOException {
+        long position = channel.position();
+        long limit = length < 0 ? channel.size() - position : length;
+        long written = 0;
+        while (written < limit) {
+            long transferred = channel.transferTo(position + written, limit - written, sink);
+            if (transferred <= 0) {
+                break;
+            }
+            written += transferred;
+        }
+        channel.position(position + written);
+        return written;
+    }
+
+    private static long copy(ReadableByteChannel channel, BufferedSink sink, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHANNEL_BUFFER_SIZE);
+        long written = 0;
+        while (length < 0 || written < length) {
+            if (length >= 0 && length - written < buffer.capacity()) {
+                buffer.limit((int) (length - written));
+            }
+            int read = channel.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                sink.write(buffer);
+            }
+            buffer.clear();
+            written += read;
+        }
+        return written;
+    }
+
+    private abstract static class OneShotBody extends RequestBody {
+        private final MediaType contentType;
+        private final long length;
+
+        private OneShotBody(MediaType contentType, long length) {
+            this.contentType = contentType;
+            this.length = length;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return this.contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return this.length;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.epsonconnectjava.metrics;
+
+import com.epsonconnectjava.http.CallTimings;
+import com.epsonconnectjava.http.Endpoint;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A recorder keeping a latency histogram and request and error counts per endpoint, along with upload and
+ * token refresh totals. Recording only updates atomic counters, so it neither locks nor allocates.
+ * Export the values with a {@link PrometheusExporter} or read them directly.
+ */
+public class HistogramMetricsRecorder implements MetricsRecorder {
+
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final CallTimings.Phase[] PHASES = CallTimings.Phase.values();
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[ENDPOINTS.length];
+    private final AtomicLongArray requests = new AtomicLongArray(ENDPOINTS.length);
+    private final AtomicLongArray errors = new AtomicLongArray(ENDPOINTS.length);
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final LatencyHistogram tokenLatency = new LatencyHistogram();
+    private final AtomicLong tokenFailures = new AtomicLong();
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+
+    public HistogramMetricsRecorder() {
+        for (int i = 0; i < ENDPOINTS.length; i++) {
+            this.latencies[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            this.phases[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public void recordRequest(Endpoint endpoint, long durationNanos, int statusCode, boolean success) {
+        int index = endpoint.ordinal();
+        this.latencies[index].record(durationNanos);
+        this.requests.incrementAndGet(index);
+        if (!success) {
+            this.errors.incrementAndGet(index);
+        }
+    }
+
+    @Override
+    public void recordUpload(long bytes) {
+        this.uploads.incrementAndGet();
+        if (bytes > 0) {
+            this.uploadedBytes.addAndGet(bytes);
+        }
+    }
+
+    @Override
+    public void recordTokenRefresh(long durationNanos, boolean success) {
+        this.tokenLatency.record(durationNanos);
+        if (!success) {
+            this.tokenFailures.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void recordCallTimings(Endpoint endpoint, CallTimings timings) {
+        for (int i = 0; i < PHASES.length; i++) {
+            long nanos = timings.getNanos(PHASES[i]);
+            if (nanos >= 0) {
+                this.phases[i].record(nanos);
+            }
+        }
+    }
+
+    /**
+     * @param phase The phase.
+     * @return The durations of the phase over all sampled calls, in nanoseconds.
+     */
+    public LatencyHistogram getPhaseLatency(CallTimings.Phase phase) {
+        return this.phases[phase.ordinal()];
+    }
+
+    /**
+     * @param endpoint The endpoint.
+     * @return The request latencies of the endpoint, in nanoseconds.
+     */
+    public LatencyHistogram getLatency(Endpoint endpoint) {
+        return this.latencies[endpoint.ordinal()];
+    }
+
+    /**
+     * @param endpoint The endpoint.
+     * @return The number of requests to the endpoint, successful or not.
+     */
+    public long getRequestCount(Endpoint endpoint) {
+        return this.requests.get(endpoint.ordinal());
+    }
+
+    /**
+     * @param endpoint The endpoint.
+     * @return The number of failed requests to the endpoint.
+     */
+    public long getErrorCount(Endpoint endpoint) {
+        return this.errors.get(endpoint.ordinal());
+    }
+
+    public long getUploadCount() {
+        return this.uploads.get();
+    }
+
+    public long getUploadedBytes() {
+        return this.uploadedBytes.get();
+    }
+
+    /**
+     * @return The durations of token requests, in nanoseconds.
+     */
+    public LatencyHistogram getTokenRefreshLatency() {
+        return this.tokenLatency;
+    }
+
+    public long getTokenRefreshCount() {
+        return this.tokenLatency.getCount();
+    }
+
+    public long getTokenRefreshFailureCount() {
+        return this.tokenFailures.get();
+    }
+}
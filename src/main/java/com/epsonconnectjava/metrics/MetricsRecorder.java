@@ -0,0 +1,57 @@
+package com.epsonconnectjava.metrics;
+
+import com.epsonconnectjava.http.CallTimings;
+import com.epsonconnectjava.http.Endpoint;
+
+/**
+ * Receives measurements from the library.
+ * <p>
+ * Methods are called on request threads, including OkHttp's dispatcher threads, so implementations must be
+ * thread-safe, fast and should not allocate. The library never calls them with a lock held.
+ */
+public interface MetricsRecorder {
+
+    /**
+     * Records a completed request.
+     *
+     * @param endpoint      The operation the request performed.
+     * @param durationNanos Time from sending the request to having read the response.
+     * @param statusCode    The HTTP status code, or 0 if no response was received.
+     * @param success       Whether the request succeeded, including parsing its response.
+     */
+    void recordRequest(Endpoint endpoint, long durationNanos, int statusCode, boolean success);
+
+    /**
+     * Records the size of an uploaded document.
+     *
+     * @param bytes The number of bytes uploaded, or -1 if a stream of unknown length was uploaded.
+     */
+    void recordUpload(long bytes);
+
+    /**
+     * Records a token request, whether a first grant or a refresh.
+     *
+     * @param durationNanos Time the request took.
+     * @param success       Whether a token was obtained.
+     */
+    void recordTokenRefresh(long durationNanos, boolean success);
+
+    /**
+     * Records the phase timings of a sampled call. Only called if the client times calls, see
+     * {@link com.epsonconnectjava.http.RealHttpClient#setCallTimingSampleRate(double)}.
+     *
+     * @param endpoint The operation the call performed.
+     * @param timings  The finished timings. They belong to the call and may be read only during this method.
+     */
+    default void recordCallTimings(Endpoint endpoint, CallTimings timings) {
+    }
+
+    /**
+     * Returns a recorder that discards everything.
+     *
+     * @return The shared no-op recorder.
+     */
+    static MetricsRecorder noop() {
+        return NoopMetricsRecorder.INSTANCE;
+    }
+}
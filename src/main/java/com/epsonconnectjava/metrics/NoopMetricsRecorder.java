@@ -0,0 +1,26 @@
+package com.epsonconnectjava.metrics;
+
+import com.epsonconnectjava.http.Endpoint;
+
+/**
+ * The recorder used when no metrics are wanted.
+ */
+final class NoopMetricsRecorder implements MetricsRecorder {
+
+    static final NoopMetricsRecorder INSTANCE = new NoopMetricsRecorder();
+
+    private NoopMetricsRecorder() {
+    }
+
+    @Override
+    public void recordRequest(Endpoint endpoint, long durationNanos, int statusCode, boolean success) {
+    }
+
+    @Override
+    public void recordUpload(long bytes) {
+    }
+
+    @Override
+    public void recordTokenRefresh(long durationNanos, boolean success) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.epsonconnectjava.metrics;
+
+import com.epsonconnectjava.http.CallTimings;
+import com.epsonconnectjava.http.Endpoint;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders the values of a {@link HistogramMetricsRecorder} in the Prometheus text exposition format, and
+ * optionally serves them over HTTP.
+ * <p>
+ * Latencies are exported as summaries with the 0.5, 0.9, 0.99 and 0.999 quantiles, in seconds. Endpoints
+ * that have not been called yet and call phases that were never sampled are left out.
+ */
+public class PrometheusExporter implements AutoCloseable {
+
+    /** The content type of the text exposition format. */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final CallTimings.Phase[] PHASES = CallTimings.Phase.values();
+
+    private final HistogramMetricsRecorder recorder;
+    private final String prefix;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Creates an exporter naming its metrics "epson_connect_...".
+     *
+     * @param recorder The recorder to export.
+     */
+    public PrometheusExporter(HistogramMetricsRecorder recorder) {
+        this(recorder, "epson_connect");
+    }
+
+    /**
+     * Creates an exporter.
+     *
+     * @param recorder The recorder to export.
+     * @param prefix   The prefix of the metric names.
+     */
+    public PrometheusExporter(HistogramMetricsRecorder recorder, String prefix) {
+        this.recorder = recorder;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Renders the current values.
+     *
+     * @return The metrics in the text exposition format.
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        String requests = this.prefix + "_request_duration_seconds";
+        out.append("# HELP ").append(requests).append(" Latency of API requests by endpoint.\n");
+        out.append("# TYPE ").append(requests).append(" summary\n");
+        for (Endpoint endpoint : ENDPOINTS) {
+            if (this.recorder.getRequestCount(endpoint) > 0) {
+                appendSummary(out, requests, "endpoint=\"" + endpoint.name().toLowerCase(Locale.ROOT) + "\"",
+                        this.recorder.getLatency(endpoint));
+            }
+        }
+
+        String errors = this.prefix + "_request_errors_total";
+        out.append("# HELP ").append(errors).append(" Failed API requests by endpoint.\n");
+        out.append("# TYPE ").append(errors).append(" counter\n");
+        for (Endpoint endpoint : ENDPOINTS) {
+            if (this.recorder.getRequestCount(endpoint) > 0) {
+                out.append(errors).append("{endpoint=\"").append(endpoint.name().toLowerCase(Locale.ROOT)).append("\"} ")
+                        .append(this.recorder.getErrorCount(endpoint)).append('\n');
+            }
+        }
+
+        String phases = this.prefix + "_call_phase_duration_seconds";
+        out.append("# HELP ").append(phases).append(" Duration of the phases of sampled HTTP calls.\n");
+        out.append("# TYPE ").append(phases).append(" summary\n");
+        for (CallTimings.Phase phase : PHASES) {
+            LatencyHistogram histogram = this.recorder.getPhaseLatency(phase);
+            if (histogram.getCount() > 0) {
+                appendSummary(out, phases, "phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"", histogram);
+            }
+        }
+
+        appendCounter(out, this.prefix + "_uploads_total", "Uploaded documents.", this.recorder.getUploadCount());
+        appendCounter(out, this.prefix + "_uploaded_bytes_total", "Bytes of uploaded documents.",
+                this.recorder.getUploadedBytes());
+
+        String tokens = this.prefix + "_token_refresh_duration_seconds";
+        out.append("# HELP ").append(tokens).append(" Latency of token requests.\n");
+        out.append("# TYPE ").append(tokens).append(" summary\n");
+        appendSummary(out, tokens, null, this.recorder.getTokenRefreshLatency());
+        appendCounter(out, this.prefix + "_token_refresh_failures_total", "Failed token requests.",
+                this.recorder.getTokenRefreshFailureCount());
+        return out.toString();
+    }
+
+    /**
+     * Serves the metrics at {@code /metrics} on the given address until {@link #close()} is called.
+     *
+     * @param address The address to listen on, such as {@code new InetSocketAddress("127.0.0.1", 9400)}.
+     * @throws IOException If the server cannot be started.
+     */
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (this.server != null) {
+            throw new IllegalStateException("Exporter is already serving");
+        }
+        HttpServer httpServer = HttpServer.create(address, 0);
+        httpServer.createContext("/metrics", exchange -> {
+            try {
+                byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        ExecutorService serverExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "epson-connect-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(serverExecutor);
+        httpServer.start();
+        this.server = httpServer;
+        this.executor = serverExecutor;
+    }
+
+    /**
+     * @return The address the metrics are served on, or null if the exporter is not serving.
+     */
+    public synchronized InetSocketAddress getAddress() {
+        return this.server == null ? null : this.server.getAddress();
+    }
+
+    /**
+     * Stops serving the metrics, if they are served.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.executor.shutdown();
+            this.server = null;
+            this.executor = null;
+        }
+    }
+
+    private static void appendSummary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels == null ? "{" : "{" + labels + ",";
+        for (double quantile : QUANTILES) {
+            out.append(name).append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.getValueAtQuantile(quantile))).append('\n');
+        }
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(suffix).append(' ').append(seconds(histogram.getSum())).append('\n');
+        out.append(name).append("_count").append(suffix).append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private static void appendCounter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
@@ -1,18 +1,34 @@
 package epsonconnectjava;
 
 import com.epsonconnectjava.AuthCtx;
+import com.epsonconnectjava.FileTokenLease;
+import com.epsonconnectjava.FileTokenStore;
+import com.epsonconnectjava.TokenStore;
 import com.epsonconnectjava.http.HttpClient;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class AuthCtxTest {
 
@@ -68,4 +84,120 @@ public class AuthCtxTest {
         assertEquals("refreshedAccessToken", authCtx.getAccessToken());
         assertEquals("oldRefreshToken", authCtx.getRefreshToken());  // Should remain unchanged
     }
+
+    @Test
+    public void testConcurrentAuthRefreshesOnce() throws Exception {
+        JSONObject response = new JSONObject();
+        response.put("access_token", "newAccessToken");
+        response.put("refresh_token", "newRefreshToken");
+        response.put("expires_in", 3600);
+        response.put("subject_id", "newSubjectId");
+        Mockito.when(mockHttpClient.send(any())).thenAnswer(invocation -> {
+            Thread.sleep(50);  // Keep the refresh in flight while the other threads arrive
+            return response;
+        });
+
+        authCtx = new AuthCtx(mockHttpClient, "https://baseUrl", "testPrinterEmail", "testClientId", "testClientSecret");
+        authCtx.setExpiresAt(new Date(System.currentTimeMillis() - 1000));
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                authCtx.auth();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // One call from the constructor and a single shared refresh
+        verify(mockHttpClient, times(2)).send(any());
+        authCtx.close();
+    }
+
+    @Test
+    public void testTokenIsRenewedBeforeExpiry() throws Exception {
+        JSONObject response = new JSONObject();
+        response.put("access_token", "newAccessToken");
+        response.put("refresh_token", "newRefreshToken");
+        response.put("expires_in", 1);  // Renewal is due after half a second
+        response.put("subject_id", "newSubjectId");
+        Mockito.when(mockHttpClient.send(any())).thenReturn(response);
+
+        authCtx = new AuthCtx(mockHttpClient, "https://baseUrl", "testPrinterEmail", "testClientId", "testClientSecret");
+
+        verify(mockHttpClient, timeout(3000).atLeast(2)).send(any());
+        authCtx.close();
+    }
+
+    @Test
+    public void testWarmStartFromTokenStore(@TempDir Path tokenDir) throws Exception {
+        JSONObject response = new JSONObject();
+        response.put("access_token", "storedAccessToken");
+        response.put("refresh_token", "storedRefreshToken");
+        response.put("expires_in", 3600);
+        response.put("subject_id", "storedSubjectId");
+        Mockito.when(mockHttpClient.send(any())).thenReturn(response);
+
+        FileTokenStore store = new FileTokenStore(tokenDir);
+        new AuthCtx(mockHttpClient, "https://baseUrl", "testPrinterEmail", "testClientId", "testClientSecret", store).close();
+
+        HttpClient restartedHttpClient = Mockito.mock(HttpClient.class);
+        authCtx = new AuthCtx(restartedHttpClient, "https://baseUrl", "testPrinterEmail", "testClientId", "testClientSecret", store);
+
+        assertEquals("storedAccessToken", authCtx.getAccessToken());
+        assertEquals("storedRefreshToken", authCtx.getRefreshToken());
+        assertEquals("storedSubjectId", authCtx.getDeviceId());
+        verify(restartedHttpClient, never()).send(any());
+        authCtx.close();
+    }
+
+    @Test
+    public void testLeaseLetsOnlyOneContextRefresh(@TempDir Path tokenDir) throws Exception {
+        FileTokenStore store = new FileTokenStore(tokenDir);
+        // Separate lease instances on one directory, as two registries in one JVM would have
+        FileTokenLease lease = new FileTokenLease(tokenDir);
+        FileTokenLease otherLease = new FileTokenLease(tokenDir);
+        store.save("testClientId:testPrinterEmail", new TokenStore.Token("expiredAccessToken", "refreshToken",
+                System.currentTimeMillis() - 1000, "subjectId"));
+
+        JSONObject response = new JSONObject();
+        response.put("access_token", "sharedAccessToken");
+        response.put("refresh_token", "sharedRefreshToken");
+        response.put("expires_in", 3600);
+        response.put("subject_id", "subjectId");
+        HttpClient first = Mockito.mock(HttpClient.class);
+        HttpClient second = Mockito.mock(HttpClient.class);
+        for (HttpClient client : new HttpClient[]{first, second}) {
+            Mockito.when(client.send(any())).thenAnswer(invocation -> {
+                Thread.sleep(50);
+                return response;
+            });
+        }
+
+        // Each context stands in for a separate process sharing the token directory
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<AuthCtx> a = executor.submit(() -> new AuthCtx(first, "https://baseUrl", "testPrinterEmail",
+                "testClientId", "testClientSecret", store, lease));
+        Future<AuthCtx> b = executor.submit(() -> new AuthCtx(second, "https://baseUrl", "testPrinterEmail",
+                "testClientId", "testClientSecret", store, otherLease));
+        AuthCtx ctxA = a.get();
+        AuthCtx ctxB = b.get();
+        executor.shutdown();
+
+        assertEquals("sharedAccessToken", ctxA.getAccessToken());
+        assertEquals("sharedAccessToken", ctxB.getAccessToken());
+        int calls = Mockito.mockingDetails(first).getInvocations().size()
+                + Mockito.mockingDetails(second).getInvocations().size();
+        assertEquals(1, calls);
+        ctxA.close();
+        ctxB.close();
+    }
 }
@@ -0,0 +1,86 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.BulkPrinter;
+import com.epsonconnectjava.Printer;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class BulkPrinterTest {
+
+    private final AtomicInteger runningTotal = new AtomicInteger();
+    private final AtomicInteger maxRunningTotal = new AtomicInteger();
+
+    private Printer slowPrinter(AtomicInteger maxRunning) {
+        AtomicInteger running = new AtomicInteger();
+        Printer printer = Mockito.mock(Printer.class);
+        when(printer.printAsync(anyString(), any())).thenAnswer(invocation -> {
+            String filePath = invocation.getArgument(0);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            maxRunningTotal.accumulateAndGet(runningTotal.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                runningTotal.decrementAndGet();
+                if (filePath.startsWith("bad")) {
+                    throw new IllegalStateException(new IOException("upload failed"));
+                }
+                return "job-" + filePath;
+            });
+        });
+        return printer;
+    }
+
+    @Test
+    public void testConcurrencyLimitsAreRespected() throws Exception {
+        AtomicInteger maxRunningA = new AtomicInteger();
+        AtomicInteger maxRunningB = new AtomicInteger();
+        Printer printerA = slowPrinter(maxRunningA);
+        Printer printerB = slowPrinter(maxRunningB);
+        List<BulkPrinter.Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new BulkPrinter.Item(i % 2 == 0 ? printerA : printerB, "file" + i + ".pdf"));
+        }
+
+        List<BulkPrinter.Result> results = new BulkPrinter(3, 2).printAll(items);
+
+        assertEquals(10, results.size());
+        assertEquals("job-file3.pdf", results.get(3).getJobId());
+        assertTrue(maxRunningTotal.get() <= 3);
+        assertTrue(maxRunningA.get() <= 2);
+        assertTrue(maxRunningB.get() <= 2);
+    }
+
+    @Test
+    public void testFailedItemDoesNotStopBatch() throws Exception {
+        Printer printer = slowPrinter(new AtomicInteger());
+        List<BulkPrinter.Item> items = new ArrayList<>();
+        items.add(new BulkPrinter.Item(printer, "file0.pdf"));
+        items.add(new BulkPrinter.Item(printer, "bad.pdf"));
+        items.add(new BulkPrinter.Item(printer, "file2.pdf"));
+
+        List<BulkPrinter.Result> results = new BulkPrinter(1, 1).printAll(items);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(1).getError() instanceof IllegalStateException);
+        assertTrue(results.get(2).isSuccess());
+        assertTrue(results.get(2).getQueueTime().compareTo(results.get(0).getQueueTime()) > 0);
+    }
+}
@@ -0,0 +1,100 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.JobListener;
+import com.epsonconnectjava.JobPoller;
+import com.epsonconnectjava.Printer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JobPollerTest {
+
+    private static CompletableFuture<Map<String, String>> status(String status) {
+        Map<String, String> jobInfo = new HashMap<>();
+        jobInfo.put("status", status);
+        return CompletableFuture.completedFuture(jobInfo);
+    }
+
+    @Test
+    public void testJobIsTrackedUntilTerminalState() throws Exception {
+        Printer printer = mock(Printer.class);
+        when(printer.jobInfoAsync("testJobId"))
+                .thenReturn(status("Processing"), status("Processing"), status("Completed"));
+        List<String> transitions = Collections.synchronizedList(new ArrayList<>());
+        JobListener listener = new JobListener() {
+            @Override
+            public void onStateChange(Printer p, String jobId, String previousState, String state, Map<String, String> jobInfo) {
+                transitions.add(previousState + "->" + state);
+            }
+        };
+
+        try (JobPoller poller = new JobPoller(100, 5, 50)) {
+            Map<String, String> result = poller.track(printer, "testJobId", listener).get(5, TimeUnit.SECONDS);
+
+            assertEquals("Completed", result.get("status"));
+            assertEquals(List.of("null->Processing", "Processing->Completed"), transitions);
+            assertEquals(0, poller.size());
+        }
+    }
+
+    @Test
+    public void testPollsRespectGlobalBudget() throws Exception {
+        Printer printer = mock(Printer.class);
+        AtomicInteger polls = new AtomicInteger();
+        when(printer.jobInfoAsync(anyString())).thenAnswer(invocation -> {
+            polls.incrementAndGet();
+            return status("completed");
+        });
+
+        try (JobPoller poller = new JobPoller(5, 1, 10)) {
+            List<CompletableFuture<Map<String, String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(poller.track(printer, "job" + i));
+            }
+            Thread.sleep(300);
+
+            // A full bucket of five plus at most two refilled permits
+            assertTrue(polls.get() <= 7, "Polled " + polls.get() + " times");
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            assertEquals(10, polls.get());
+        }
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStallJob() throws Exception {
+        Printer printer = mock(Printer.class);
+        when(printer.jobInfoAsync("testJobId")).thenReturn(status("Processing"), status("Completed"));
+        JobListener listener = new JobListener() {
+            @Override
+            public void onStateChange(Printer p, String jobId, String previousState, String state, Map<String, String> jobInfo) {
+                throw new IllegalStateException("listener failed");
+            }
+
+            @Override
+            public void onFinished(Printer p, String jobId, Map<String, String> jobInfo, Throwable error) {
+                throw new IllegalStateException("listener failed");
+            }
+        };
+
+        try (JobPoller poller = new JobPoller(100, 5, 50)) {
+            poller.addListener(listener);
+            Map<String, String> result = poller.track(printer, "testJobId", listener).get(5, TimeUnit.SECONDS);
+
+            assertEquals("Completed", result.get("status"));
+            assertEquals(0, poller.size());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.JobPoller;
+import com.epsonconnectjava.JobStateEvent;
+import com.epsonconnectjava.JobStatePublisher;
+import com.epsonconnectjava.Printer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JobStatePublisherTest {
+
+    private static CompletableFuture<Map<String, String>> status(String status) {
+        Map<String, String> jobInfo = new HashMap<>();
+        jobInfo.put("status", status);
+        return CompletableFuture.completedFuture(jobInfo);
+    }
+
+    @Test
+    public void testSubscriberReceivesTransitionsOfItsPrinter() throws Exception {
+        Printer printer = mock(Printer.class);
+        Printer otherPrinter = mock(Printer.class);
+        when(printer.jobInfoAsync("testJobId")).thenReturn(status("processing"), status("completed"));
+        when(otherPrinter.jobInfoAsync("otherJobId")).thenReturn(status("completed"));
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch completed = new CountDownLatch(1);
+
+        try (JobPoller poller = new JobPoller(100, 5, 50)) {
+            JobStatePublisher publisher = new JobStatePublisher(poller, printer, 4);
+            publisher.subscribe(new Flow.Subscriber<JobStateEvent>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(JobStateEvent event) {
+                    received.add(event.getJobId() + ":" + event.getState());
+                    this.subscription.request(1);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.countDown();
+                }
+            });
+
+            CompletableFuture.allOf(poller.track(printer, "testJobId"), poller.track(otherPrinter, "otherJobId"))
+                    .get(5, TimeUnit.SECONDS);
+            publisher.close();
+
+            assertTrue(completed.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("testJobId:processing", "testJobId:completed"), received);
+            assertEquals(0, publisher.getDroppedCount());
+        }
+    }
+}
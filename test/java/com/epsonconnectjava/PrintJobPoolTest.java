@@ -0,0 +1,96 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.PrintJobPool;
+import com.epsonconnectjava.Printer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PrintJobPoolTest {
+
+    private Printer printer;
+    private final AtomicInteger jobCounter = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        printer = Mockito.mock(Printer.class);
+        when(printer.printSettingAsync(any())).thenAnswer(invocation -> {
+            JSONObject jobData = new JSONObject();
+            jobData.put("id", "pooled" + jobCounter.getAndIncrement());
+            return CompletableFuture.completedFuture(jobData);
+        });
+        JSONObject onDemand = new JSONObject();
+        onDemand.put("id", "onDemand");
+        when(printer.printSetting(any())).thenReturn(onDemand);
+    }
+
+    @Test
+    public void testTakeUsesPooledJobAndRefills() throws Exception {
+        try (PrintJobPool pool = new PrintJobPool(printer, null, 2, 60_000)) {
+            assertEquals(2, pool.available());
+
+            assertEquals("pooled0", pool.take().getString("id"));
+
+            assertEquals(2, pool.available());
+            verify(printer, never()).printSetting(any());
+        }
+    }
+
+    @Test
+    public void testAbandonedPoolCanBeCollected() throws Exception {
+        WeakReference<PrintJobPool> ref = new WeakReference<>(new PrintJobPool(printer, null, 1, 60_000));
+
+        // The scheduled sweep must not keep an unclosed pool reachable
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(ref.get());
+    }
+
+    @Test
+    public void testStaleJobsAreNotHandedOut() throws Exception {
+        JSONObject pooled = new JSONObject();
+        pooled.put("id", "pooled");
+        // Only the first creation completes, later refills stay in flight
+        when(printer.printSettingAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(pooled))
+                .thenReturn(new CompletableFuture<>());
+
+        try (PrintJobPool pool = new PrintJobPool(printer, null, 1, 1000)) {
+            Thread.sleep(1100);
+
+            assertEquals("onDemand", pool.take().getString("id"));
+        }
+    }
+
+    @Test
+    public void testFailedCreationsPauseRefill() throws Exception {
+        when(printer.printSettingAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("unavailable")));
+
+        try (PrintJobPool pool = new PrintJobPool(printer, null, 2, 60_000)) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals("onDemand", pool.take().getString("id"));
+            }
+
+            // Only the initial fill was attempted
+            verify(printer, times(2)).printSettingAsync(any());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PrintJobPool(printer, null, 1, 10));
+    }
+}
@@ -0,0 +1,107 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.PrintPipeline;
+import com.epsonconnectjava.Printer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class PrintPipelineTest {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger jobCounter = new AtomicInteger();
+
+    private <T> CompletableFuture<T> slow(AtomicInteger stageInFlight, AtomicInteger stageMax, Supplier<T> result) {
+        stageMax.accumulateAndGet(stageInFlight.incrementAndGet(), Math::max);
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stageInFlight.decrementAndGet();
+            inFlight.decrementAndGet();
+            return result.get();
+        });
+    }
+
+    @Test
+    public void testStagesOverlapButEachRunsOneAtATime() throws Exception {
+        AtomicInteger creating = new AtomicInteger();
+        AtomicInteger uploading = new AtomicInteger();
+        AtomicInteger executing = new AtomicInteger();
+        AtomicInteger maxCreating = new AtomicInteger();
+        AtomicInteger maxUploading = new AtomicInteger();
+        AtomicInteger maxExecuting = new AtomicInteger();
+        Printer printer = Mockito.mock(Printer.class);
+        when(printer.printSettingAsync(any())).thenAnswer(invocation -> slow(creating, maxCreating, () -> {
+            JSONObject jobData = new JSONObject();
+            jobData.put("id", "job" + jobCounter.getAndIncrement());
+            jobData.put("upload_uri", "https://baseUrl/upload");
+            return jobData;
+        }));
+        when(printer.uploadFileAsync(anyString(), any(Path.class), anyString()))
+                .thenAnswer(invocation -> slow(uploading, maxUploading, () -> (Void) null));
+        when(printer.executePrintAsync(anyString()))
+                .thenAnswer(invocation -> slow(executing, maxExecuting, () -> (Void) null));
+
+        PrintPipeline pipeline = new PrintPipeline(printer, 2);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(pipeline.submit("file" + i + ".pdf"));
+        }
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals("job" + i, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, maxCreating.get());
+        assertEquals(1, maxUploading.get());
+        assertEquals(1, maxExecuting.get());
+        assertTrue(maxInFlight.get() > 1);
+    }
+
+    @Test
+    public void testFailedUploadFailsOnlyThatDocument() throws Exception {
+        Printer printer = Mockito.mock(Printer.class);
+        when(printer.printSettingAsync(any())).thenAnswer(invocation -> {
+            JSONObject jobData = new JSONObject();
+            jobData.put("id", "job" + jobCounter.getAndIncrement());
+            jobData.put("upload_uri", "https://baseUrl/upload");
+            return CompletableFuture.completedFuture(jobData);
+        });
+        when(printer.uploadFileAsync(anyString(), any(Path.class), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(printer.uploadFileAsync(anyString(), eq(Path.of("bad.pdf")), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("bad file")));
+        when(printer.executePrintAsync(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        PrintPipeline pipeline = new PrintPipeline(printer, 1);
+        CompletableFuture<String> first = pipeline.submit("file0.pdf");
+        CompletableFuture<String> bad = pipeline.submit("bad.pdf");
+        CompletableFuture<String> last = pipeline.submit("file2.pdf");
+
+        assertEquals("job0", first.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+        assertEquals("job2", last.get(5, TimeUnit.SECONDS));
+    }
+}
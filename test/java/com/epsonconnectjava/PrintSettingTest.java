@@ -0,0 +1,125 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.AuthCtx;
+import com.epsonconnectjava.PrintSetting;
+import com.epsonconnectjava.Printer;
+import okhttp3.Request;
+import okio.Buffer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class PrintSettingTest {
+
+    private AuthCtx mockAuthCtx;
+    private Printer printer;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        mockAuthCtx = Mockito.mock(AuthCtx.class);
+        mockAuthCtx.baseUrl = "https://baseUrl";
+        when(mockAuthCtx.getDeviceId()).thenReturn("testDeviceId");
+        when(mockAuthCtx.send(any())).thenReturn(new JSONObject().put("id", "testJobId"));
+        printer = new Printer(mockAuthCtx);
+    }
+
+    @Test
+    public void testCreateJobSendsTypedSettings() throws IOException {
+        PrintSetting settings = PrintSetting.builder()
+                .printMode(PrintSetting.PrintMode.PHOTO)
+                .mediaSize(PrintSetting.MediaSize.TWO_L)
+                .twoSided(PrintSetting.TwoSided.LONG)
+                .copies(3)
+                .build();
+
+        printer.createJob(settings);
+        printer.createJob(settings);
+
+        ArgumentCaptor<Request.Builder> captor = ArgumentCaptor.forClass(Request.Builder.class);
+        verify(mockAuthCtx, times(2)).send(captor.capture());
+        JSONObject first = body(captor.getAllValues().get(0).build());
+        JSONObject second = body(captor.getAllValues().get(1).build());
+        assertEquals("/api/1/printing/printers/testDeviceId/jobs", captor.getValue().build().url().encodedPath());
+        assertEquals("photo", first.getString("print_mode"));
+        JSONObject printSetting = first.getJSONObject("print_setting");
+        assertEquals("ms_2l", printSetting.getString("media_size"));
+        assertEquals("mt_plainpaper", printSetting.getString("media_type"));
+        assertEquals("long", printSetting.getString("2_sided"));
+        assertEquals(3, printSetting.getInt("copies"));
+        assertTrue(printSetting.getBoolean("collate"));
+        // Every job gets its own generated name
+        assertTrue(first.getString("job_name").startsWith("job-"));
+        assertNotEquals(first.getString("job_name"), second.getString("job_name"));
+    }
+
+    @Test
+    public void testBuildValidatesOnce() throws IOException {
+        assertThrows(RuntimeException.class, () -> PrintSetting.builder()
+                .twoSided(PrintSetting.TwoSided.SHORT).reverseOrder(true).build());
+        assertThrows(RuntimeException.class, () -> PrintSetting.builder().copies(100).build());
+        assertThrows(IllegalArgumentException.class, () -> PrintSetting.builder()
+                .jobName(new String(new char[257]).replace('\0', 'a')).build());
+
+        PrintSetting settings = PrintSetting.builder().jobName("report").build();
+        printer.createJob(settings);
+
+        ArgumentCaptor<Request.Builder> captor = ArgumentCaptor.forClass(Request.Builder.class);
+        verify(mockAuthCtx).send(captor.capture());
+        JSONObject body = body(captor.getValue().build());
+        assertEquals("report", body.getString("job_name"));
+        assertEquals("document", body.getString("print_mode"));
+        // Without print options the printer's own defaults apply
+        assertFalse(body.has("print_setting"));
+    }
+
+    @Test
+    public void testDefaultConstructorUsesBuilderDefaults() throws IOException {
+        printer.createJob(new PrintSetting());
+
+        ArgumentCaptor<Request.Builder> captor = ArgumentCaptor.forClass(Request.Builder.class);
+        verify(mockAuthCtx).send(captor.capture());
+        JSONObject body = body(captor.getValue().build());
+        assertTrue(body.getString("job_name").startsWith("job-"));
+        assertEquals("document", body.getString("print_mode"));
+        assertFalse(body.has("print_setting"));
+    }
+
+    @Test
+    public void testMapSettingsAcceptTwoSidedValues() {
+        // The two-sided values used to be added to the color modes, leaving no valid 2_sided value
+        for (String twoSided : new String[]{"none", "long", "short"}) {
+            Map<String, Object> printSetting = new HashMap<>();
+            printSetting.put("2_sided", twoSided);
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("print_setting", printSetting);
+
+            PrintSetting.validateSettings(PrintSetting.mergeWithDefaultSettings(settings));
+        }
+
+        Map<String, Object> printSetting = new HashMap<>();
+        printSetting.put("color_mode", "long");
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("print_setting", printSetting);
+        assertThrows(RuntimeException.class,
+                () -> PrintSetting.validateSettings(PrintSetting.mergeWithDefaultSettings(settings)));
+    }
+
+    private static JSONObject body(Request request) throws IOException {
+        Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return new JSONObject(buffer.readUtf8());
+    }
+}
@@ -1,19 +1,31 @@
 package epsonconnectjava;
 
 import com.epsonconnectjava.AuthCtx;
+import com.epsonconnectjava.JobInfo;
 import com.epsonconnectjava.Printer;
 import com.epsonconnectjava.http.HttpClient;
+import okhttp3.Request;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class PrinterTest {
@@ -84,4 +96,112 @@ public class PrinterTest {
 
         assertEquals("testJobId", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testJobInfoAsync() throws Exception {
+        JSONObject mockResponse = new JSONObject();
+        mockResponse.put("jobId", "testJobId");
+        mockResponse.put("status", "completed");
+
+        when(mockAuthCtx.getDeviceId()).thenReturn("testDeviceId");
+        when(mockAuthCtx.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        Map<String, String> result = printer.jobInfoAsync("testJobId").get();
+
+        assertEquals("completed", result.get("status"));
+        verify(mockAuthCtx, never()).send(any());
+    }
+
+    @Test
+    public void testPrintAsync() throws Exception {
+        JSONObject mockResponse = new JSONObject();
+        mockResponse.put("upload_uri", "https://baseUrl");
+        mockResponse.put("id", "testJobId");
+
+        when(mockAuthCtx.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        String result = printer.printAsync("testFilePath.pdf").get();
+
+        assertEquals("testJobId", result);
+        verify(mockAuthCtx, times(3)).sendAsync(any());
+    }
+
+    @Test
+    public void testUploadFileAsyncRejectsInvalidExtension() {
+        CompletableFuture<Void> result = printer.uploadFileAsync("https://baseUrl", Paths.get("testFilePath.exe"), "document");
+
+        ExecutionException e = assertThrows(ExecutionException.class, result::get);
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testPrintFromByteBuffer() throws Exception {
+        JSONObject mockResponse = new JSONObject();
+        mockResponse.put("upload_uri", "https://baseUrl/upload?Key=abc");
+        mockResponse.put("id", "testJobId");
+        when(mockAuthCtx.send(any())).thenReturn(mockResponse);
+        ByteBuffer data = ByteBuffer.wrap("%PDF-1.4".getBytes(StandardCharsets.US_ASCII));
+
+        String result = printer.print(data, "PDF", null);
+
+        assertEquals("testJobId", result);
+        ArgumentCaptor<Request.Builder> captor = ArgumentCaptor.forClass(Request.Builder.class);
+        verify(mockAuthCtx, times(3)).send(captor.capture());
+        Request upload = captor.getAllValues().get(1).build();
+        assertEquals("Key=abc&File=1.pdf", upload.url().query());
+        assertEquals(8, upload.body().contentLength());
+        // The caller's buffer is left untouched
+        assertEquals(0, data.position());
+    }
+
+    @Test
+    public void testPrintFromStreamRejectsInvalidExtension() throws IOException {
+        InputStream in = new ByteArrayInputStream(new byte[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> printer.print(in, -1, "exe", null));
+        // No job is created for a format that cannot be printed
+        verify(mockAuthCtx, never()).send(any());
+    }
+
+    @Test
+    public void testRequestsFollowTokenAndDeviceChanges() throws IOException {
+        when(mockAuthCtx.send(any())).thenReturn(new JSONObject());
+        when(mockAuthCtx.getDeviceId()).thenReturn("deviceA", "deviceA", "deviceB");
+        mockAuthCtx.accessToken = "tokenA";
+
+        printer.jobInfo("job1");
+        printer.jobInfo("job2");
+        mockAuthCtx.accessToken = "tokenB";
+        printer.executePrint("job3");
+
+        ArgumentCaptor<Request.Builder> captor = ArgumentCaptor.forClass(Request.Builder.class);
+        verify(mockAuthCtx, times(3)).send(captor.capture());
+        Request first = captor.getAllValues().get(0).build();
+        Request second = captor.getAllValues().get(1).build();
+        Request third = captor.getAllValues().get(2).build();
+        assertEquals("//api/1/printing/printers/deviceA/jobs/job1", first.url().encodedPath());
+        assertEquals("Bearer tokenA", first.header("Authorization"));
+        assertEquals("//api/1/printing/printers/deviceA/jobs/job2", second.url().encodedPath());
+        assertEquals("Bearer tokenA", second.header("Authorization"));
+        assertEquals("//api/1/printing/printers/deviceB/jobs/job3/print", third.url().encodedPath());
+        assertEquals("Bearer tokenB", third.header("Authorization"));
+    }
+
+    @Test
+    public void testJobStateKeepsNestedValues() throws IOException {
+        JSONObject mockResponse = new JSONObject()
+                .put("status", "pending")
+                .put("total_pages", 4)
+                .put("status_reason", new JSONObject().put("code", "paper_jam"));
+        when(mockAuthCtx.send(any())).thenReturn(mockResponse);
+
+        JobInfo result = printer.jobState("testJobId");
+
+        assertEquals("pending", result.getStatus());
+        assertEquals(4, result.getTotalPages());
+        assertEquals("paper_jam", ((JSONObject) result.get("status_reason")).getString("code"));
+        // The map view matches what jobInfo returns
+        assertEquals(printer.jobInfo("testJobId"), result.asMap());
+        assertThrows(UnsupportedOperationException.class, () -> result.asMap().put("status", "completed"));
+    }
+}
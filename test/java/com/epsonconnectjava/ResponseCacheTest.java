@@ -0,0 +1,100 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.AuthCtx;
+import com.epsonconnectjava.Printer;
+import com.epsonconnectjava.ResponseCache;
+import com.epsonconnectjava.Scanner;
+import com.epsonconnectjava.http.Endpoint;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class ResponseCacheTest {
+
+    private AuthCtx mockAuthCtx;
+
+    @BeforeEach
+    public void setUp() {
+        mockAuthCtx = Mockito.mock(AuthCtx.class);
+        mockAuthCtx.baseUrl = "https://baseUrl";
+        when(mockAuthCtx.getDeviceId()).thenReturn("testDeviceId");
+    }
+
+    @Test
+    public void testPrinterInfoIsServedFromCache() throws Exception {
+        when(mockAuthCtx.send(any())).thenReturn(new JSONObject().put("name", "printer"));
+        Printer printer = new Printer(mockAuthCtx, new ResponseCache(60_000, 10));
+
+        assertEquals("printer", printer.info().get("name"));
+        assertEquals("printer", printer.info().get("name"));
+
+        verify(mockAuthCtx, times(1)).send(any());
+    }
+
+    @Test
+    public void testConcurrentLoadsAreCoalesced() {
+        ResponseCache cache = new ResponseCache(60_000, 10);
+        CompletableFuture<JSONObject> inFlight = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<JSONObject> first = cache.getAsync("device", Endpoint.PRINTER_INFO, () -> {
+            loads.incrementAndGet();
+            return inFlight;
+        });
+        CompletableFuture<JSONObject> second = cache.getAsync("device", Endpoint.PRINTER_INFO, () -> {
+            loads.incrementAndGet();
+            return inFlight;
+        });
+        CompletableFuture<JSONObject> third = cache.getAsync("device", Endpoint.PRINTER_INFO, () -> {
+            loads.incrementAndGet();
+            return inFlight;
+        });
+        // One caller giving up does not affect the others
+        third.cancel(true);
+        JSONObject response = new JSONObject();
+        inFlight.complete(response);
+
+        assertEquals(1, loads.get());
+        assertSame(response, first.join());
+        assertSame(response, second.join());
+        assertTrue(third.isCancelled());
+    }
+
+    @Test
+    public void testScannerWritesInvalidateList() throws Exception {
+        when(mockAuthCtx.send(any())).thenReturn(new JSONObject().put("id", "destinationId"));
+        Scanner scanner = new Scanner(mockAuthCtx, new ResponseCache(60_000, 10));
+
+        scanner.list();
+        scanner.list();
+        scanner.add("name", "user@example.com", "mail");
+        scanner.list();
+
+        // list, add, list again after the add
+        verify(mockAuthCtx, times(3)).send(any());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+        ResponseCache cache = new ResponseCache(60_000, 2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", Endpoint.PRINTER_INFO, () -> new JSONObject().put("load", loads.incrementAndGet()));
+        cache.get("b", Endpoint.PRINTER_INFO, () -> new JSONObject().put("load", loads.incrementAndGet()));
+        cache.get("a", Endpoint.PRINTER_INFO, () -> new JSONObject().put("load", loads.incrementAndGet()));
+        cache.get("c", Endpoint.PRINTER_INFO, () -> new JSONObject().put("load", loads.incrementAndGet()));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("a", Endpoint.PRINTER_INFO, () -> new JSONObject().put("load", loads.incrementAndGet())).getInt("load"));
+        assertEquals(3, loads.get());
+    }
+}
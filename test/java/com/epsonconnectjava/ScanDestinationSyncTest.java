@@ -0,0 +1,120 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.AuthCtx;
+import com.epsonconnectjava.ScanDestination;
+import com.epsonconnectjava.ScanDestinationSync;
+import com.epsonconnectjava.Scanner;
+import okhttp3.Request;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class ScanDestinationSyncTest {
+
+    private static JSONObject destination(String id, String alias, String address) {
+        return new JSONObject().put("id", id).put("alias_name", alias).put("destination", address).put("type", "mail");
+    }
+
+    private static AuthCtx mockAuthCtx(JSONArray registered) {
+        AuthCtx authCtx = Mockito.mock(AuthCtx.class);
+        authCtx.baseUrl = "https://baseUrl";
+        when(authCtx.getDeviceId()).thenReturn("testDeviceId");
+        when(authCtx.sendAsync(any())).thenAnswer(invocation -> {
+            Request request = invocation.<Request.Builder>getArgument(0).build();
+            if ("GET".equals(request.method())) {
+                return CompletableFuture.completedFuture(new JSONObject().put("destinations", registered));
+            }
+            return CompletableFuture.completedFuture(new JSONObject().put("id", "newId"));
+        });
+        return authCtx;
+    }
+
+    @Test
+    public void testSyncIssuesMinimalOperations() throws Exception {
+        AuthCtx authCtx = mockAuthCtx(new JSONArray()
+                .put(destination("1", "office", "office@example.com"))
+                .put(destination("2", "lab", "lab@example.com"))
+                .put(destination("3", "old", "old@example.com")));
+        Scanner scanner = new Scanner(authCtx);
+        Map<Scanner, Collection<ScanDestination>> desired = new LinkedHashMap<>();
+        desired.put(scanner, Arrays.asList(
+                new ScanDestination("office", "office@example.com", "mail"),
+                new ScanDestination("lab", "research@example.com", "mail"),
+                new ScanDestination("home", "home@example.com", "mail")));
+
+        List<ScanDestinationSync.Result> results = new ScanDestinationSync(4, true).sync(desired);
+
+        Map<ScanDestinationSync.Action, String> actions = new EnumMap<>(ScanDestinationSync.Action.class);
+        for (ScanDestinationSync.Result result : results) {
+            assertTrue(result.isSuccess());
+            actions.put(result.getAction(), result.getAliasName());
+        }
+        assertEquals("office", actions.get(ScanDestinationSync.Action.UNCHANGED));
+        assertEquals("lab", actions.get(ScanDestinationSync.Action.UPDATE));
+        assertEquals("home", actions.get(ScanDestinationSync.Action.ADD));
+        assertEquals("old", actions.get(ScanDestinationSync.Action.DELETE));
+        // list, update as delete plus add, add, delete
+        verify(authCtx, times(5)).sendAsync(any());
+    }
+
+    @Test
+    public void testDuplicateAliasKeepsMatchingCopy() throws Exception {
+        AuthCtx authCtx = mockAuthCtx(new JSONArray()
+                .put(destination("1", "office", "stale@example.com"))
+                .put(destination("2", "office", "office@example.com"))
+                .put(destination("3", "office", "other@example.com")));
+        Scanner scanner = new Scanner(authCtx);
+        Map<Scanner, Collection<ScanDestination>> desired = new LinkedHashMap<>();
+        desired.put(scanner, Arrays.asList(new ScanDestination("office", "office@example.com", "mail")));
+
+        // Copies of a desired alias are deleted even when unlisted destinations are kept
+        List<ScanDestinationSync.Result> results = new ScanDestinationSync(1, false).sync(desired);
+
+        assertEquals(3, results.size());
+        Map<String, ScanDestinationSync.Action> actions = new LinkedHashMap<>();
+        for (ScanDestinationSync.Result result : results) {
+            assertTrue(result.isSuccess());
+            actions.put(result.getDestination().getId(), result.getAction());
+        }
+        assertEquals(ScanDestinationSync.Action.DELETE, actions.get("1"));
+        assertEquals(ScanDestinationSync.Action.UNCHANGED, actions.get("2"));
+        assertEquals(ScanDestinationSync.Action.DELETE, actions.get("3"));
+        // list and two deletes
+        verify(authCtx, times(3)).sendAsync(any());
+    }
+
+    @Test
+    public void testListFailureIsReportedPerDestination() throws Exception {
+        AuthCtx failing = Mockito.mock(AuthCtx.class);
+        failing.baseUrl = "https://baseUrl";
+        when(failing.sendAsync(any())).thenReturn(CompletableFuture.failedFuture(new IOException("unreachable")));
+        AuthCtx healthy = mockAuthCtx(new JSONArray());
+        Map<Scanner, Collection<ScanDestination>> desired = new LinkedHashMap<>();
+        desired.put(new Scanner(failing), Arrays.asList(new ScanDestination("office", "office@example.com", "mail")));
+        desired.put(new Scanner(healthy), Arrays.asList(new ScanDestination("office", "office@example.com", "mail")));
+
+        List<ScanDestinationSync.Result> results = new ScanDestinationSync(1, false).sync(desired);
+
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).isSuccess());
+        assertNull(results.get(0).getAction());
+        assertEquals(ScanDestinationSync.Action.ADD, results.get(1).getAction());
+        assertTrue(results.get(1).isSuccess());
+    }
+}
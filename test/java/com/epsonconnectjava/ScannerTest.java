@@ -3,17 +3,25 @@ package epsonconnectjava;
 import com.epsonconnectjava.AuthCtx;
 import com.epsonconnectjava.Scanner;
 import com.epsonconnectjava.http.HttpClient;
+import okhttp3.Request;
+import okio.Buffer;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 public class ScannerTest {
@@ -52,4 +60,93 @@ public class ScannerTest {
         assertEquals("mockedId", result.get("id"));
         verify(mockAuthCtx, times(1)).send(any());
     }
-}
\ No newline at end of file
+
+    private void stubDestinations() throws IOException {
+        JSONObject destination = new JSONObject();
+        destination.put("id", "destinationId");
+        destination.put("alias_name", "office");
+        destination.put("type", "mail");
+        destination.put("destination", "office@example.com");
+        JSONObject listResponse = new JSONObject().put("destinations", new JSONArray().put(destination));
+        when(mockAuthCtx.send(any())).thenAnswer(invocation -> {
+            Request request = invocation.<Request.Builder>getArgument(0).build();
+            return "GET".equals(request.method()) ? listResponse : new JSONObject().put("id", "destinationId");
+        });
+    }
+
+    @Test
+    public void testUpdateKeepsListedValuesOfOmittedFields() throws Exception {
+        stubDestinations();
+        ArgumentCaptor<Request.Builder> captor = ArgumentCaptor.forClass(Request.Builder.class);
+
+        scanner.list();
+        scanner.update("destinationId", "reception", null, null);
+
+        // list, delete, update; the update needs no extra lookup
+        verify(mockAuthCtx, times(3)).send(captor.capture());
+        Buffer body = new Buffer();
+        captor.getAllValues().get(2).build().body().writeTo(body);
+        JSONObject sent = new JSONObject(body.readUtf8());
+        assertEquals("reception", sent.getString("alias_name"));
+        assertEquals("office@example.com", sent.getString("destination"));
+        assertEquals("mail", sent.getString("type"));
+    }
+
+    @Test
+    public void testUpdateOfUnknownDestinationFails() throws Exception {
+        stubDestinations();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> scanner.update("unknownId", "name", null, null));
+
+        assertEquals("Scan destination is not yet registered.", e.getMessage());
+        // Only the refreshing list request was sent
+        verify(mockAuthCtx, times(1)).send(any());
+    }
+
+    @Test
+    public void testFindByAliasUsesCache() throws Exception {
+        stubDestinations();
+
+        assertEquals("destinationId", scanner.findByAlias("office").get("id"));
+        assertNull(scanner.findByAlias("unknown"));
+
+        verify(mockAuthCtx, times(1)).send(any());
+    }
+
+    @Test
+    public void testUpdateAfterAddResolvesLocally() throws Exception {
+        JSONObject added = new JSONObject()
+                .put("id", "addedId")
+                .put("alias_name", "office")
+                .put("type", "mail")
+                .put("destination", "office@example.com");
+        when(mockAuthCtx.send(any())).thenReturn(added, new JSONObject(), added);
+
+        scanner.add("office", "office@example.com", "mail");
+        scanner.update("addedId", "reception", null, null);
+
+        // add, delete, update; the added destination needs no list request
+        verify(mockAuthCtx, times(3)).send(any());
+    }
+
+    @Test
+    public void testListResponseKeepsDestinationAddedMeanwhile() throws Exception {
+        CompletableFuture<JSONObject> listResponse = new CompletableFuture<>();
+        when(mockAuthCtx.sendAsync(any())).thenReturn(listResponse);
+        when(mockAuthCtx.send(any())).thenReturn(new JSONObject()
+                .put("id", "addedId")
+                .put("alias_name", "reception")
+                .put("type", "mail")
+                .put("destination", "reception@example.com"));
+
+        CompletableFuture<Map<String, String>> listed = scanner.listAsync();
+        scanner.add("reception", "reception@example.com", "mail");
+        // The list was read before the destination was added
+        listResponse.complete(new JSONObject().put("destinations", new JSONArray()));
+        listed.get(1, TimeUnit.SECONDS);
+
+        assertEquals("addedId", scanner.findByAlias("reception").get("id"));
+        verify(mockAuthCtx, times(1)).sendAsync(any());
+        verify(mockAuthCtx, times(1)).send(any());
+    }
+}
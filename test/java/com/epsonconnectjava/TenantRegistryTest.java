@@ -0,0 +1,117 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.AuthCtx;
+import com.epsonconnectjava.TenantRegistry;
+import com.epsonconnectjava.http.HttpTransport;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TenantRegistryTest {
+
+    private MockWebServer server;
+    private HttpTransport transport;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("{\"access_token\": \"token\", \"refresh_token\": \"refresh\","
+                        + " \"expires_in\": 3600, \"subject_id\": \"device\"}");
+            }
+        });
+        server.start();
+        transport = new HttpTransport();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        transport.shutdown();
+        server.shutdown();
+    }
+
+    private String baseUrl() {
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+
+    @Test
+    public void testSameTenantSharesContext() {
+        TenantRegistry registry = new TenantRegistry(transport, baseUrl(), 10, 60_000, false);
+
+        AuthCtx first = registry.get("printer@example.com", "clientId", "clientSecret");
+        AuthCtx second = registry.get("printer@example.com", "clientId", "clientSecret");
+
+        assertSame(first, second);
+        assertEquals("token", first.getAccessToken());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTenantIsEvicted() {
+        TenantRegistry registry = new TenantRegistry(transport, baseUrl(), 2, 60_000, false);
+
+        AuthCtx a = registry.get("a@example.com", "clientId", "clientSecret");
+        registry.get("b@example.com", "clientId", "clientSecret");
+        registry.get("a@example.com", "clientId", "clientSecret");
+        registry.get("c@example.com", "clientId", "clientSecret");
+
+        assertEquals(2, registry.size());
+        assertSame(a, registry.get("a@example.com", "clientId", "clientSecret"));
+        // b was least recently used and has to be recreated
+        AuthCtx b = registry.get("b@example.com", "clientId", "clientSecret");
+        assertEquals(4, server.getRequestCount());
+        assertNotSame(a, b);
+    }
+
+    @Test
+    public void testIdleTenantsAreEvicted() throws Exception {
+        TenantRegistry registry = new TenantRegistry(transport, baseUrl(), 10, 500, false);
+
+        registry.get("a@example.com", "clientId", "clientSecret");
+        registry.get("b@example.com", "clientId", "clientSecret");
+        Thread.sleep(600);
+
+        assertEquals(2, registry.evictIdle());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testEvictionDeauthenticates() throws Exception {
+        TenantRegistry registry = new TenantRegistry(transport, baseUrl(), 1, 60_000, true);
+
+        registry.get("a@example.com", "clientId", "clientSecret");
+        registry.get("b@example.com", "clientId", "clientSecret");
+
+        assertEquals("POST", server.takeRequest().getMethod());
+        // a is evicted and deauthenticated before b is created
+        RecordedRequest deauthenticate = server.takeRequest();
+        assertEquals("DELETE", deauthenticate.getMethod());
+        assertEquals("/api/1/printing/printers/device", deauthenticate.getPath());
+    }
+
+    @Test
+    public void testDeauthenticatedContextDropsItsToken() {
+        TenantRegistry registry = new TenantRegistry(transport, baseUrl(), 1, 60_000, true);
+        AuthCtx a = registry.get("a@example.com", "clientId", "clientSecret");
+
+        registry.get("b@example.com", "clientId", "clientSecret");
+
+        // A holder of the evicted context no longer sends the revoked token
+        assertEquals("", a.getAccessToken());
+        assertTrue(a.getExpiresAt().getTime() <= System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,118 @@
+package epsonconnectjava;
+
+import com.epsonconnectjava.AuthCtx;
+import com.epsonconnectjava.UploadEngine;
+import com.epsonconnectjava.http.HttpTransport;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UploadEngineTest {
+
+    private MockWebServer server;
+    private HttpTransport transport;
+    private AuthCtx authCtx;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        transport = new HttpTransport();
+        server.enqueue(new MockResponse().setBody("{\"access_token\": \"token\", \"refresh_token\": \"refresh\","
+                + " \"expires_in\": 3600, \"subject_id\": \"device\"}"));
+        String url = server.url("/").toString();
+        authCtx = new AuthCtx(transport, url.substring(0, url.length() - 1), "printerEmail", "clientId", "clientSecret");
+        server.takeRequest();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        authCtx.close();
+        transport.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    public void testResumableUploadRetriesFromLastAcknowledgedChunk() throws Exception {
+        Path file = tempDir.resolve("document.pdf");
+        Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+        server.enqueue(new MockResponse());
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse());
+        server.enqueue(new MockResponse());
+        AtomicLong lastSent = new AtomicLong();
+        UploadEngine engine = new UploadEngine(4, 2, 1, true, (sent, total, rate) -> lastSent.set(sent));
+
+        engine.upload(authCtx, server.url("/upload").toString(), file);
+
+        assertChunk(server.takeRequest(), "bytes 0-3/10", "0123");
+        assertChunk(server.takeRequest(), "bytes 4-7/10", "4567");
+        // Only the failed chunk is sent again
+        assertChunk(server.takeRequest(), "bytes 4-7/10", "4567");
+        assertChunk(server.takeRequest(), "bytes 8-9/10", "89");
+        assertEquals(10, lastSent.get());
+    }
+
+    @Test
+    public void testUploadFailsAfterRetriesAreExhausted() throws Exception {
+        Path file = tempDir.resolve("document.pdf");
+        Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        UploadEngine engine = new UploadEngine(4, 1, 1, false, null);
+
+        assertThrows(IOException.class, () -> engine.upload(authCtx, server.url("/upload").toString(), file));
+        // Without resume support every attempt sends the whole file
+        assertEquals("0123456789", server.takeRequest().getBody().readUtf8());
+        assertEquals("0123456789", server.takeRequest().getBody().readUtf8());
+    }
+
+    @Test
+    public void testRejectedUploadIsNotRetried() throws Exception {
+        Path file = tempDir.resolve("document.pdf");
+        Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+        server.enqueue(new MockResponse().setResponseCode(413));
+        server.enqueue(new MockResponse());
+        UploadEngine engine = new UploadEngine(4, 3, 1, true, null);
+
+        assertThrows(IOException.class, () -> engine.upload(authCtx, server.url("/upload").toString(), file));
+        server.takeRequest();
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testResumableUploadOfEmptyFileHasNoRange() throws Exception {
+        Path file = tempDir.resolve("empty.pdf");
+        Files.write(file, new byte[0]);
+        server.enqueue(new MockResponse());
+        UploadEngine engine = new UploadEngine(4, 1, 1, true, null);
+
+        engine.upload(authCtx, server.url("/upload").toString(), file);
+
+        RecordedRequest request = server.takeRequest();
+        assertNull(request.getHeader("Content-Range"));
+        assertEquals(0, request.getBodySize());
+    }
+
+    private static void assertChunk(RecordedRequest request, String contentRange, String body) {
+        assertEquals(contentRange, request.getHeader("Content-Range"));
+        assertEquals(body, request.getBody().readUtf8());
+    }
+}
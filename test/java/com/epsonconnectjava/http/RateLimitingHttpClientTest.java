@@ -0,0 +1,162 @@
+package epsonconnectjava.http;
+
+import com.epsonconnectjava.http.HttpClient;
+import com.epsonconnectjava.http.RateLimiter;
+import com.epsonconnectjava.http.RateLimitingHttpClient;
+import okhttp3.Request;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RateLimitingHttpClientTest {
+
+    private static Request.Builder request(String deviceId) {
+        return new Request.Builder().url("https://baseUrl/api/1/printing/printers/" + deviceId + "/jobs/job");
+    }
+
+    @Test
+    public void testLimiterAllowsBurstThenRejects() {
+        RateLimiter limiter = new RateLimiter(1, 3);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        // The next permit is due in about a second
+        assertTrue(limiter.reserve() > TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void testFailFastLimitsEachDeviceSeparately() throws Exception {
+        HttpClient delegate = mock(HttpClient.class);
+        when(delegate.send(any())).thenReturn(new JSONObject());
+        RateLimitingHttpClient client = new RateLimitingHttpClient(delegate, RateLimitingHttpClient.Mode.FAIL_FAST,
+                null, null, new RateLimiter.PerKey(1, 1));
+
+        client.send(request("first"));
+        client.send(request("second"));
+        RateLimitingHttpClient.RateLimitExceededException e = assertThrows(RateLimitingHttpClient.RateLimitExceededException.class,
+                () -> client.send(request("first")));
+
+        assertEquals("device", e.getLimit());
+        verify(delegate, times(2)).send(any());
+    }
+
+    @Test
+    public void testRejectedRequestDoesNotUseUpOtherLimits() throws Exception {
+        HttpClient delegate = mock(HttpClient.class);
+        when(delegate.send(any())).thenReturn(new JSONObject());
+        RateLimiter global = new RateLimiter(1, 2);
+        RateLimitingHttpClient client = new RateLimitingHttpClient(delegate, RateLimitingHttpClient.Mode.FAIL_FAST,
+                global, new RateLimiter(1, 1), null);
+
+        client.send(request("device"));
+        assertThrows(RateLimitingHttpClient.RateLimitExceededException.class, () -> client.send(request("device")));
+
+        // The global permit taken by the rejected request was handed back
+        assertTrue(global.tryAcquire());
+    }
+
+    @Test
+    public void testAsyncWaitDelaysWithoutBlocking() throws Exception {
+        HttpClient delegate = mock(HttpClient.class);
+        when(delegate.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(new JSONObject()));
+        RateLimitingHttpClient client = new RateLimitingHttpClient(delegate, RateLimitingHttpClient.Mode.ASYNC_WAIT,
+                new RateLimiter(10, 1), null, null);
+
+        client.sendAsync(request("device")).get(1, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        CompletableFuture<JSONObject> delayed = client.sendAsync(request("device"));
+        long returnedAfter = System.nanoTime() - start;
+        delayed.get(1, TimeUnit.SECONDS);
+
+        assertTrue(returnedAfter < TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        verify(delegate, times(2)).sendAsync(any());
+    }
+
+    @Test
+    public void testAsyncWaitFailsSynchronousRequests() throws Exception {
+        HttpClient delegate = mock(HttpClient.class);
+        when(delegate.send(any())).thenReturn(new JSONObject());
+        when(delegate.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(new JSONObject()));
+        RateLimitingHttpClient client = new RateLimitingHttpClient(delegate, RateLimitingHttpClient.Mode.ASYNC_WAIT,
+                new RateLimiter(10, 1), null, null);
+
+        client.send(request("device"));
+        long start = System.nanoTime();
+        assertThrows(RateLimitingHttpClient.RateLimitExceededException.class, () -> client.send(request("device")));
+
+        // The rejected request neither waited nor used up a permit
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+        client.sendAsync(request("device")).get(1, TimeUnit.SECONDS);
+        verify(delegate, times(1)).send(any());
+    }
+
+    @Test
+    public void testBlockModeDoesNotBlockAsyncCaller() throws Exception {
+        HttpClient delegate = mock(HttpClient.class);
+        when(delegate.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(new JSONObject()));
+        RateLimitingHttpClient client = new RateLimitingHttpClient(delegate, RateLimitingHttpClient.Mode.BLOCK,
+                new RateLimiter(10, 1), null, null);
+
+        client.sendAsync(request("device")).get(1, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        CompletableFuture<JSONObject> delayed = client.sendAsync(request("device"));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+        delayed.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCancellingDelayedRequestReleasesPermitsAndCancelsCall() throws Exception {
+        HttpClient delegate = mock(HttpClient.class);
+        CompletableFuture<JSONObject> call = new CompletableFuture<>();
+        when(delegate.sendAsync(any())).thenReturn(CompletableFuture.completedFuture(new JSONObject()), call);
+        RateLimiter global = new RateLimiter(1, 1);
+        RateLimitingHttpClient client = new RateLimitingHttpClient(delegate, RateLimitingHttpClient.Mode.ASYNC_WAIT,
+                global, null, null);
+
+        client.sendAsync(request("device")).get(1, TimeUnit.SECONDS);
+        client.sendAsync(request("device")).cancel(true);
+        // Only the permit of the first request is still taken
+        assertTrue(global.reserve() <= TimeUnit.SECONDS.toNanos(1));
+        verify(delegate, times(1)).sendAsync(any());
+
+        RateLimiter fast = new RateLimiter(20, 1);
+        RateLimitingHttpClient fastClient = new RateLimitingHttpClient(delegate, RateLimitingHttpClient.Mode.ASYNC_WAIT,
+                fast, null, null);
+        fast.reserve();
+        CompletableFuture<JSONObject> sent = fastClient.sendAsync(request("device"));
+        verify(delegate, timeout(1000).times(2)).sendAsync(any());
+        sent.cancel(true);
+
+        // The cancellation reaches the call from the scheduler thread
+        assertThrows(CancellationException.class, () -> call.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testIdleDeviceLimitersAreEvicted() throws Exception {
+        RateLimiter.PerKey devices = new RateLimiter.PerKey(100, 1);
+        devices.get("first");
+        Thread.sleep(1100);
+
+        devices.get("second");
+
+        assertEquals(1, devices.size());
+    }
+}
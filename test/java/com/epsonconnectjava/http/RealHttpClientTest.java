@@ -0,0 +1,154 @@
+package epsonconnectjava.http;
+
+import com.epsonconnectjava.http.CallTimings;
+import com.epsonconnectjava.http.HttpTransport;
+import com.epsonconnectjava.http.RealHttpClient;
+import com.epsonconnectjava.http.StreamingRequestBodies;
+import com.epsonconnectjava.metrics.HistogramMetricsRecorder;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RealHttpClientTest {
+
+    private MockWebServer server;
+    private RealHttpClient httpClient;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        httpClient = new RealHttpClient(server.url("/").toString(), "printerEmail", "clientId", "clientSecret");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"id\": \"testJobId\"}"));
+
+        JSONObject result = httpClient.sendAsync(new Request.Builder().url(server.url("/jobs"))).get(5, TimeUnit.SECONDS);
+
+        assertEquals("testJobId", result.getString("id"));
+    }
+
+    @Test
+    public void testSendAsyncFailsOnErrorStatus() {
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> httpClient.sendAsync(new Request.Builder().url(server.url("/jobs"))).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    @Test
+    public void testSendAsyncFailsOnApiError() {
+        server.enqueue(new MockResponse().setBody("{\"error\": \"invalid_request\"}"));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> httpClient.sendAsync(new Request.Builder().url(server.url("/jobs"))).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RealHttpClient.ApiError);
+    }
+
+    @Test
+    public void testClientsSharingTransportReuseConnection() throws Exception {
+        HttpTransport transport = new HttpTransport();
+        RealHttpClient first = new RealHttpClient(transport, server.url("/").toString());
+        RealHttpClient second = new RealHttpClient(transport, server.url("/").toString());
+        server.enqueue(new MockResponse().setBody("{}"));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        first.send(new Request.Builder().url(server.url("/first")));
+        second.send(new Request.Builder().url(server.url("/second")));
+
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        // The second client's request travels on the connection opened by the first one
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+        transport.shutdown();
+        // Shutting down the default transport would stop the dispatcher of every client in the process
+        assertThrows(IllegalStateException.class, () -> HttpTransport.getDefault().shutdown());
+    }
+
+    @Test
+    public void testSendReturnsNullForBlankBody() throws Exception {
+        server.enqueue(new MockResponse().setBody("  \n"));
+
+        assertNull(httpClient.send(new Request.Builder().url(server.url("/jobs"))));
+    }
+
+    @Test
+    public void testSendRejectsOversizedBody() {
+        httpClient.setMaxResponseBytes(16);
+        server.enqueue(new MockResponse().setBody("{\"id\": \"aVeryLongJobIdentifier\"}"));
+
+        assertThrows(IOException.class, () -> httpClient.send(new Request.Builder().url(server.url("/jobs"))));
+    }
+
+    @Test
+    public void testSendRejectsOversizedChunkedBody() {
+        httpClient.setMaxResponseBytes(16);
+        server.enqueue(new MockResponse().setChunkedBody("{\"id\": \"aVeryLongJobIdentifier\"}", 8));
+
+        assertThrows(IOException.class, () -> httpClient.send(new Request.Builder().url(server.url("/jobs"))));
+    }
+
+    @Test
+    public void testSendStreamsChannelOfUnknownLength() throws Exception {
+        server.enqueue(new MockResponse().setBody("{}"));
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream("streamed data".getBytes(StandardCharsets.US_ASCII)));
+
+        httpClient.send(new Request.Builder().url(server.url("/upload"))
+                .post(StreamingRequestBodies.create(null, channel, -1)));
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("chunked", request.getHeader("Transfer-Encoding"));
+        assertEquals("streamed data", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testCallTimingsAreAttachedAndRecorded() throws Exception {
+        HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+        httpClient.setMetricsRecorder(recorder);
+        httpClient.setCallTimingSampleRate(0);
+        server.enqueue(new MockResponse().setBody("{}"));
+        server.enqueue(new MockResponse().setBody("{}"));
+        CallTimings timings = new CallTimings();
+
+        httpClient.send(new Request.Builder().url(server.url("/upload?File=1.pdf"))
+                .post(StreamingRequestBodies.create(null, new ByteArrayInputStream(new byte[1024]), 1024))
+                .tag(CallTimings.class, timings));
+        // Untagged calls are not sampled at a rate of 0
+        httpClient.send(new Request.Builder().url(server.url("/jobs")));
+
+        assertTrue(timings.isFinished());
+        long total = timings.getNanos(CallTimings.Phase.TOTAL);
+        assertTrue(timings.getNanos(CallTimings.Phase.REQUEST_BODY) >= 0);
+        assertTrue(timings.getNanos(CallTimings.Phase.TIME_TO_FIRST_BYTE) >= 0);
+        assertTrue(timings.getNanos(CallTimings.Phase.TIME_TO_FIRST_BYTE) <= total);
+        assertFalse(timings.isConnectionReused());
+        assertEquals(1, recorder.getPhaseLatency(CallTimings.Phase.TOTAL).getCount());
+        assertEquals(1, recorder.getPhaseLatency(CallTimings.Phase.REQUEST_BODY).getCount());
+    }
+}
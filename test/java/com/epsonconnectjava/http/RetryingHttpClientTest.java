@@ -0,0 +1,161 @@
+package epsonconnectjava.http;
+
+import com.epsonconnectjava.http.Endpoint;
+import com.epsonconnectjava.http.HttpClient;
+import com.epsonconnectjava.http.HttpStatusException;
+import com.epsonconnectjava.http.HttpTransport;
+import com.epsonconnectjava.http.RateLimitingHttpClient;
+import com.epsonconnectjava.http.RealHttpClient;
+import com.epsonconnectjava.http.RetryingHttpClient;
+import com.epsonconnectjava.metrics.MetricsRecorder;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RetryingHttpClientTest {
+
+    private MockWebServer server;
+    private HttpTransport transport;
+    private RealHttpClient realClient;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        transport = new HttpTransport();
+        realClient = new RealHttpClient(transport, server.url("/").toString());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        transport.shutdown();
+        server.shutdown();
+    }
+
+    private Request.Builder request(String path) {
+        return new Request.Builder().url(server.url(path));
+    }
+
+    @Test
+    public void testIdempotentRequestIsRetriedAfterTransientFailure() throws Exception {
+        RetryingHttpClient client = new RetryingHttpClient(realClient, 3, 10, 1_000, 5, 60_000);
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "0"));
+        server.enqueue(new MockResponse().setBody("{\"status\": \"completed\"}"));
+
+        JSONObject result = client.send(request("/api/1/printing/printers/device/jobs/job"));
+
+        assertEquals("completed", result.getString("status"));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testJobCreationIsNotRetried() {
+        RetryingHttpClient client = new RetryingHttpClient(realClient, 3, 10, 1_000, 5, 60_000);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        HttpStatusException e = assertThrows(HttpStatusException.class, () -> client.send(request("/api/1/printing/printers/device/jobs")
+                .post(RequestBody.create(MediaType.get("application/json"), "{}"))));
+
+        assertEquals(500, e.getCode());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testOpenCircuitFailsFast() throws Exception {
+        RetryingHttpClient client = new RetryingHttpClient(realClient, 1, 10, 1_000, 2, 60_000);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        assertThrows(HttpStatusException.class, () -> client.send(request("/api/1/printing/printers/device")));
+        assertThrows(HttpStatusException.class, () -> client.send(request("/api/1/printing/printers/device")));
+        assertThrows(RetryingHttpClient.CircuitOpenException.class, () -> client.send(request("/api/1/printing/printers/device")));
+        assertEquals(2, server.getRequestCount());
+        // Other endpoints keep working
+        server.enqueue(new MockResponse().setBody("{}"));
+        client.send(request("/api/1/printing/printers/device/jobs/job"));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void testSendAsyncRetries() throws Exception {
+        RetryingHttpClient client = new RetryingHttpClient(realClient, 3, 10, 1_000, 5, 60_000);
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setBody("{\"id\": \"testJobId\"}"));
+
+        JSONObject result = client.sendAsync(request("/api/1/printing/printers/device/jobs/job")).get(5, TimeUnit.SECONDS);
+
+        assertEquals("testJobId", result.getString("id"));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void testCancelledTrialLeavesCircuitState() throws Exception {
+        HttpClient delegate = mock(HttpClient.class);
+        when(delegate.sendAsync(any())).thenReturn(
+                CompletableFuture.failedFuture(new HttpStatusException("unavailable", 503, -1)),
+                CompletableFuture.failedFuture(new HttpStatusException("unavailable", 503, -1)),
+                new CompletableFuture<>(),
+                CompletableFuture.failedFuture(new HttpStatusException("unavailable", 503, -1)));
+        RetryingHttpClient client = new RetryingHttpClient(delegate, 1, 10, 1_000, 2, 50);
+        Request.Builder request = request("/api/1/printing/printers/device/jobs/job");
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<JSONObject> failed = client.sendAsync(request);
+            assertThrows(Exception.class, () -> failed.get(1, TimeUnit.SECONDS));
+        }
+        Thread.sleep(100);
+        client.sendAsync(request).cancel(true);
+        // The cancelled trial did not close the breaker, so the next failed trial opens it again at once
+        CompletableFuture<JSONObject> trial = client.sendAsync(request);
+        assertThrows(Exception.class, () -> trial.get(1, TimeUnit.SECONDS));
+        CompletableFuture<JSONObject> rejected = client.sendAsync(request);
+
+        Exception e = assertThrows(Exception.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertEquals(RetryingHttpClient.CircuitOpenException.class, e.getCause().getClass());
+        verify(delegate, times(4)).sendAsync(any());
+    }
+
+    @Test
+    public void testEndpointClassification() {
+        assertEquals(Endpoint.TOKEN, Endpoint.of(request("/api/1/printing/oauth2/auth/token?subject=printer").build()));
+        assertEquals(Endpoint.PRINTER_INFO, Endpoint.of(request("/api/1/printing/printers/device").build()));
+        assertEquals(Endpoint.DEAUTHENTICATE, Endpoint.of(request("/api/1/printing/printers/device").delete().build()));
+        assertEquals(Endpoint.JOB_CREATE, Endpoint.of(request("/api/1/printing/printers/device/jobs").build()));
+        assertEquals(Endpoint.JOB_INFO, Endpoint.of(request("/api/1/printing/printers/device/jobs/job").build()));
+        assertEquals(Endpoint.EXECUTE, Endpoint.of(request("/api/1/printing/printers/device/jobs/job/print").build()));
+        assertEquals(Endpoint.UPLOAD, Endpoint.of(request("/upload?Key=abc&File=1.pdf").build()));
+        assertEquals(Endpoint.SCAN_DESTINATIONS, Endpoint.of(request("/api/1/scanning/scanners/device/destinations").build()));
+    }
+
+    @Test
+    public void testMetricsRecorderReachesWrappedClient() {
+        HttpClient delegate = mock(HttpClient.class);
+        HttpClient client = new RetryingHttpClient(
+                new RateLimitingHttpClient(delegate, RateLimitingHttpClient.Mode.BLOCK, null, null, null));
+        MetricsRecorder recorder = mock(MetricsRecorder.class);
+
+        client.setMetricsRecorder(recorder);
+
+        verify(delegate).setMetricsRecorder(recorder);
+    }
+}
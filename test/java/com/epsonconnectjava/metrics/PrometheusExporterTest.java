@@ -0,0 +1,77 @@
+package epsonconnectjava.metrics;
+
+import com.epsonconnectjava.http.Endpoint;
+import com.epsonconnectjava.http.RealHttpClient;
+import com.epsonconnectjava.metrics.HistogramMetricsRecorder;
+import com.epsonconnectjava.metrics.LatencyHistogram;
+import com.epsonconnectjava.metrics.PrometheusExporter;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrometheusExporterTest {
+
+    @Test
+    public void testHistogramQuantilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500000L, histogram.getSum());
+        long median = histogram.getValueAtQuantile(0.5);
+        assertTrue(median >= 500000 && median <= 500000 * 9 / 8, "median " + median);
+        long p99 = histogram.getValueAtQuantile(0.99);
+        assertTrue(p99 >= 990000 && p99 <= 990000 * 9 / 8, "p99 " + p99);
+    }
+
+    @Test
+    public void testRequestsAreRecordedAndServed() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+        RealHttpClient httpClient = new RealHttpClient(server.url("/").toString(), "printerEmail", "clientId", "clientSecret");
+        httpClient.setMetricsRecorder(recorder);
+        try (PrometheusExporter exporter = new PrometheusExporter(recorder)) {
+            server.enqueue(new MockResponse().setBody("{\"status\": \"completed\"}"));
+            server.enqueue(new MockResponse().setResponseCode(503));
+            String jobPath = "/api/1/printing/printers/device/jobs/job1";
+
+            httpClient.send(new Request.Builder().url(server.url(jobPath)));
+            assertThrows(IOException.class, () -> httpClient.send(new Request.Builder().url(server.url(jobPath))));
+            server.enqueue(new MockResponse().setBody("{}"));
+            httpClient.sendAsync(new Request.Builder().url(server.url(jobPath))).get(5, TimeUnit.SECONDS);
+
+            assertEquals(3, recorder.getRequestCount(Endpoint.JOB_INFO));
+            assertEquals(1, recorder.getErrorCount(Endpoint.JOB_INFO));
+
+            exporter.start(new InetSocketAddress("127.0.0.1", 0));
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:"
+                    + exporter.getAddress().getPort() + "/metrics").openConnection();
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertEquals(PrometheusExporter.CONTENT_TYPE, connection.getContentType());
+            assertTrue(body.contains("epson_connect_request_duration_seconds_count{endpoint=\"job_info\"} 3\n"), body);
+            assertTrue(body.contains("epson_connect_request_errors_total{endpoint=\"job_info\"} 1\n"), body);
+            assertTrue(body.contains("# TYPE epson_connect_request_duration_seconds summary\n"), body);
+        } finally {
+            server.shutdown();
+        }
+    }
+}